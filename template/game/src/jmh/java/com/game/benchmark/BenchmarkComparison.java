@@ -0,0 +1,76 @@
+package com.game.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сравнивает два файла результатов JMH в формате JSON, например с двух коммитов. <p>
+ * Запуск: <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.game.benchmark.BenchmarkComparison
+ * -Djmh.args="base.json target/jmh-result.json 10"</code>, где последнее число - допустимое ухудшение в процентах.
+ * При ухудшении больше допустимого процесс завершается с кодом 1
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <base.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %9s %-6s%n", "benchmark", "base", "current", "change", "unit");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            JsonNode metric = entry.getValue().path("primaryMetric");
+            double score = metric.path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s %-6s%n",
+                        entry.getKey(), "-", score, "new", metric.path("scoreUnit").asText());
+                continue;
+            }
+
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double change = (score - baseScore) / baseScore * 100;
+            // для режимов времени рост значения - ухудшение, для пропускной способности - улучшение
+            boolean higherIsWorse = !"thrpt".equals(entry.getValue().path("mode").asText());
+            boolean regression = (higherIsWorse ? change : -change) > threshold;
+            if (regression)
+                regressions++;
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %-6s%s%n",
+                    entry.getKey(), baseScore, score, change, metric.path("scoreUnit").asText(),
+                    regression ? " REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Читает результаты по ключу: имя теста, режим и значения параметров
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(' ').append(result.path("mode").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,40 @@
+package com.game.benchmark;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Игроки для тестов производительности. Одинаковое зерно дает одинаковых игроков в каждом запуске
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Создает игроков без id со случайными расой, профессией, датой рождения с 2000 года и опытом
+     *
+     * @param count количество игроков
+     * @param seed зерно генератора
+     * @return список игроков
+     */
+    static List<Player> players(int count, long seed) {
+        Random random = new Random(seed);
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Player player = new Player("Игрок" + i, "Титул игрока номер " + i,
+                    Race.values()[random.nextInt(Race.values().length)],
+                    Profession.values()[random.nextInt(Profession.values().length)],
+                    new Date(946684800000L + random.nextInt(1_000_000) * 1_000_000L),
+                    random.nextBoolean(), random.nextInt(10_000_000), 0, 0);
+            players.add(player);
+        }
+        return players;
+    }
+}
@@ -0,0 +1,65 @@
+package com.game.benchmark;
+
+import com.game.entity.Player;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загружает в таблицу игроков набор данных из {@link PlayerGenerator} пакетами JDBC в обход приложения. <p>
+ * Запуск: <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.game.benchmark.DatasetLoader
+ * -Djmh.args="jdbc:mysql://localhost:3306/rpg?rewriteBatchedStatements=true root root 10000000 42"</code>,
+ * где после адреса, пользователя и пароля идут число игроков, зерно генератора и размер пакета. <p>
+ * Приложение при запуске читает игроков в кэши и копию по столбцам, поэтому его нужно запускать после загрузки
+ */
+public class DatasetLoader {
+
+    private static final String INSERT = "INSERT INTO player "
+            + "(name, title, race, profession, birthday, banned, experience, level, untilNextLevel) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 4) {
+            System.err.println("Usage: DatasetLoader <jdbc url> <user> <password> <rows> [seed] [batch size]");
+            System.exit(2);
+        }
+        long rows = Long.parseLong(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : 5_000;
+
+        PlayerGenerator generator = new PlayerGenerator(seed);
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2]);
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            connection.setAutoCommit(false);
+
+            for (long row = 1; row <= rows; row++) {
+                Player player = generator.next();
+                insert.setString(1, player.getName());
+                insert.setString(2, player.getTitle());
+                insert.setString(3, player.getRace().name());
+                insert.setString(4, player.getProfession().name());
+                insert.setDate(5, new java.sql.Date(player.getBirthday().getTime()));
+                insert.setBoolean(6, player.getBanned());
+                insert.setInt(7, player.getExperience());
+                insert.setInt(8, player.getLevel());
+                insert.setInt(9, player.getUntilNextLevel());
+                insert.addBatch();
+
+                if (row % batchSize == 0 || row == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                    if (row % (batchSize * 100L) == 0 || row == rows) {
+                        double seconds = (System.nanoTime() - started) / 1e9;
+                        System.out.printf("%,d rows, %.0f rows/s%n", row, row / seconds);
+                    }
+                }
+            }
+        }
+        System.out.printf("Loaded %,d players in %d s%n", rows,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+    }
+}
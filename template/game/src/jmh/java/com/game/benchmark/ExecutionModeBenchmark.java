@@ -0,0 +1,150 @@
+package com.game.benchmark;
+
+import com.game.exception.ServiceUnavailableException;
+import com.game.executor.RequestExecutor;
+import com.game.executor.VirtualThreads;
+import com.game.metrics.LatencyHistogram;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пропускная способность и 99-й перцентиль задержки пула {@link RequestExecutor} на обычных
+ * и виртуальных потоках при 1000-10000 одновременных клиентах. <p>
+ * Обращение к базе данных моделируется ожиданием одного из <code>connections</code> соединений
+ * с тайм-аутом как у пула соединений и паузой <code>serviceMs</code>, поэтому на виртуальных потоках
+ * параллельность ограничивает пул соединений, а на обычных - число потоков пула чтения. <p>
+ * Запуск: <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.game.benchmark.ExecutionModeBenchmark
+ * -Djmh.args="1000,2000,5000,10000 20 5 10"</code>, где после числа клиентов идут число соединений,
+ * время запроса в миллисекундах и длительность измерения в секундах
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int POOL_SIZE = 16;
+    private static final int QUEUE_CAPACITY = 200;
+    private static final long QUEUE_TIMEOUT_MS = 2_000;
+    private static final long CONNECTION_TIMEOUT_MS = 3_000;
+    private static final long BACKOFF_MS = 10;
+    private static final int WARMUP_SECONDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = {1_000, 2_000, 5_000, 10_000};
+        if (args.length > 0) {
+            String[] parts = args[0].split(",");
+            clients = new int[parts.length];
+            for (int i = 0; i < parts.length; i++)
+                clients[i] = Integer.parseInt(parts[i].trim());
+        }
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long serviceMillis = args.length > 2 ? Long.parseLong(args[2]) : 5;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        System.out.printf("%-8s %8s %12s %10s %10s %12s %10s%n",
+                "mode", "clients", "ok/s", "p50 ms", "p99 ms", "rejected/s", "timeouts");
+        for (boolean virtual : new boolean[]{false, true}) {
+            if (virtual && !VirtualThreads.isSupported()) {
+                System.out.println("virtual  skipped: virtual threads require JVM 21 or later");
+                continue;
+            }
+            for (int count : clients)
+                run(virtual, count, connections, serviceMillis, seconds);
+        }
+    }
+
+    private static void run(boolean virtual, int clients, int connections, long serviceMillis, int seconds)
+            throws InterruptedException {
+        RequestExecutor executor = new RequestExecutor("benchmark", POOL_SIZE, QUEUE_CAPACITY, QUEUE_TIMEOUT_MS,
+                virtual);
+        Semaphore pool = new Semaphore(connections, true);
+        Callable<Integer> query = () -> {
+            if (!pool.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                throw new SQLTransientConnectionException("Connection is not available");
+            try {
+                Thread.sleep(serviceMillis);
+                return 1;
+            } finally {
+                pool.release();
+            }
+        };
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder rejected = new LongAdder();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        Runnable client = () -> {
+            try {
+                while (System.nanoTime() < measureTo) {
+                    long start = System.nanoTime();
+                    boolean ok = call(executor, query);
+                    if (start >= measureFrom) {
+                        if (ok)
+                            latency.record(System.nanoTime() - start);
+                        else
+                            rejected.increment();
+                    }
+                    if (!ok)
+                        Thread.sleep(BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // клиенты запускаются на виртуальных потоках, если они есть, чтобы 10000 клиентов не мешали измерению
+        ExecutorService virtualClients = VirtualThreads.isSupported()
+                ? VirtualThreads.newThreadPerTaskExecutor("client-") : null;
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            if (virtualClients != null) {
+                virtualClients.execute(client);
+            } else {
+                Thread thread = new Thread(null, client, "client-" + i, 256 * 1024);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        for (Thread thread : threads)
+            thread.join();
+        if (virtualClients != null) {
+            virtualClients.shutdown();
+            virtualClients.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        System.out.printf("%-8s %8d %12.0f %10.1f %10.1f %12.0f %10d%n",
+                virtual ? "virtual" : "platform", clients,
+                snapshot.getCount() / (double) seconds,
+                snapshot.percentile(0.5) / 1e6,
+                snapshot.percentile(0.99) / 1e6,
+                rejected.sum() / (double) seconds,
+                executor.snapshot().getTimeouts());
+        executor.shutdown();
+    }
+
+    /**
+     * Выполняет запрос так же, как контроллер, и ждет ответа
+     *
+     * @return <code>true</code>, если запрос выполнен, <code>false</code> при ответе 503
+     */
+    private static boolean call(RequestExecutor executor, Callable<Integer> query) throws InterruptedException {
+        DeferredResult<Integer> result;
+        try {
+            result = executor.call(query);
+        } catch (ServiceUnavailableException e) {
+            return false;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        result.setResultHandler(value -> done.countDown());
+        done.await();
+        return !(result.getResult() instanceof ServiceUnavailableException);
+    }
+}
@@ -0,0 +1,276 @@
+package com.game.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузка на запущенное приложение смесью запросов списка, количества, получения, создания,
+ * изменения и удаления игроков. По каждой операции выводятся пропускная способность, ошибки
+ * и перцентили задержки по HdrHistogram. <p>
+ * Запуск: <code>mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.game.benchmark.LoadDriver
+ * -Djmh.args="url=http://localhost:8080 clients=64 seconds=60 warmup=10
+ * mix=list:40,count:20,get:25,create:5,update:5,delete:5 seed=42 out=target/load"</code>. <p>
+ * Клиенты работают по замкнутому циклу: следующий запрос отправляется после ответа на предыдущий.
+ * Удаляются только игроки, созданные во время нагрузки; если их нет, вместо удаления выполняется создание.
+ * При параметре <code>out</code> в каталог записываются полные распределения задержек в формате .hgrm
+ */
+public class LoadDriver {
+
+    private enum Operation {
+        LIST, COUNT, GET, CREATE, UPDATE, DELETE
+    }
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String url;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Operation, Stats> stats = new LinkedHashMap<>();
+    private final ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private long maxId;
+
+    private LoadDriver(String url, Map<Operation, Integer> mix) {
+        this.url = url;
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        for (Operation operation : Operation.values())
+            stats.put(operation, new Stats());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0)
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : options.getOrDefault("mix", "list:40,count:20,get:25,create:5,update:5,delete:5").split(",")) {
+            String[] entry = part.split(":");
+            mix.put(Operation.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+        }
+
+        LoadDriver driver = new LoadDriver(url, mix);
+        driver.maxId = Long.parseLong(new String(driver.request("GET", "/rest/players/count", null).body,
+                StandardCharsets.UTF_8).trim());
+        System.out.printf("%s: %,d players, %d clients, %d s warmup, %d s measurement%n",
+                url, driver.maxId, clients, warmup, seconds);
+
+        driver.run(clients, seed, warmup, seconds);
+        driver.report(seconds, options.get("out"));
+    }
+
+    private void run(int clients, long seed, int warmup, int seconds) throws InterruptedException {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            PlayerGenerator generator = new PlayerGenerator(seed + i);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < measureTo) {
+                    Operation operation = nextOperation();
+                    long start = System.nanoTime();
+                    int status = execute(operation, generator);
+                    if (start >= measureFrom)
+                        stats.get(operation).record(status, System.nanoTime() - start);
+                }
+            }, "load-client-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+            thread.join();
+    }
+
+    private Operation nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+            if (value < cumulativeWeights[i])
+                return operations[i];
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * Выполняет операцию
+     *
+     * @return HTTP статус ответа либо <code>0</code> при ошибке соединения
+     */
+    private int execute(Operation operation, PlayerGenerator generator) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            switch (operation) {
+                case LIST:
+                    return request("GET", "/rest/players?pageSize=20&pageNumber=" + random.nextInt(10)
+                            + (random.nextBoolean() ? "&race=" + Race.values()[random.nextInt(Race.values().length)] : "")
+                            + "&order=" + (random.nextBoolean() ? "ID" : "LEVEL"), null).status;
+                case COUNT:
+                    return request("GET", "/rest/players/count?profession="
+                            + Profession.values()[random.nextInt(Profession.values().length)]
+                            + "&minLevel=" + random.nextInt(50), null).status;
+                case GET:
+                    return request("GET", "/rest/players/" + randomId(), null).status;
+                case UPDATE:
+                    return request("POST", "/rest/players/" + randomId(),
+                            "{\"experience\":" + random.nextInt(1_000_000) + "}").status;
+                case DELETE:
+                    Long id = createdIds.poll();
+                    if (id != null)
+                        return request("DELETE", "/rest/players/" + id, null).status;
+                    // удалять нечего, чтобы не портить набор данных вместо удаления выполняется создание
+                default:
+                    return create(generator);
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private int create(PlayerGenerator generator) throws IOException {
+        Player player = generator.next();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", player.getName());
+        body.put("title", player.getTitle());
+        body.put("race", player.getRace());
+        body.put("profession", player.getProfession());
+        body.put("birthday", player.getBirthday().getTime());
+        body.put("banned", player.getBanned());
+        body.put("experience", player.getExperience());
+
+        Response response = request("POST", "/rest/players/", mapper.writeValueAsString(body));
+        if (response.status == 200) {
+            JsonNode created = mapper.readTree(response.body);
+            createdIds.add(created.path("id").asLong());
+        }
+        return response.status;
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(Math.max(1, maxId));
+    }
+
+    private Response request(String method, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (json != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        // тело читается полностью, чтобы соединение вернулось в пул keep-alive
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                for (int read; (read = stream.read(buffer)) > 0; )
+                    body.write(buffer, 0, read);
+            }
+        }
+        return new Response(status, body.toByteArray());
+    }
+
+    private void report(int seconds, String out) throws IOException {
+        System.out.printf("%-8s %10s %10s %8s %8s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "failed", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        if (out != null)
+            new File(out).mkdirs();
+
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().latency.getIntervalHistogram();
+            if (histogram.getTotalCount() == 0)
+                continue;
+            Stats stat = entry.getValue();
+            System.out.printf("%-8s %10d %10.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / (double) seconds,
+                    stat.clientErrors.sum(), stat.serverErrors.sum(), stat.failures.sum(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+
+            if (out != null) {
+                try (PrintStream file = new PrintStream(new FileOutputStream(
+                        new File(out, entry.getKey().name().toLowerCase() + ".hgrm")), false, "UTF-8")) {
+                    histogram.outputPercentileDistribution(file, 1000.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Задержки и ошибки одной операции. Запись из клиентских потоков не блокируется
+     */
+    private static class Stats {
+
+        private final Recorder latency = new Recorder(HIGHEST_MICROS, 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private void record(int status, long nanos) {
+            if (status == 0)
+                failures.increment();
+            else if (status >= 500)
+                serverErrors.increment();
+            else if (status >= 400)
+                clientErrors.increment();
+            latency.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.game.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.config.AppConfig;
+import com.game.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость записи и чтения страницы игроков в форматах JSON, CBOR и Smile
+ * теми же настройками Jackson, что и у конвертеров {@link com.game.config.WebConfig}.
+ * Размер тела каждого формата печатается при подготовке
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageFormatBenchmark {
+
+    public enum Format {
+        JSON, CBOR, SMILE
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Format format;
+
+    @Param({"1", "100"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+
+    private JavaType listType;
+
+    private List<Player> players;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        switch (format) {
+            case CBOR:
+                mapper = AppConfig.withFieldVisibility(Jackson2ObjectMapperBuilder.cbor().build());
+                break;
+            case SMILE:
+                mapper = AppConfig.withFieldVisibility(Jackson2ObjectMapperBuilder.smile().build());
+                break;
+            default:
+                mapper = AppConfig.withFieldVisibility(Jackson2ObjectMapperBuilder.json().build());
+        }
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, Player.class);
+
+        players = BenchmarkData.players(pageSize, 42);
+        for (int i = 0; i < players.size(); i++)
+            players.get(i).setId((long) i + 1);
+
+        encoded = mapper.writeValueAsBytes(players);
+        System.out.printf("%s, %d players: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(players);
+    }
+
+    @Benchmark
+    public List<Player> decode() throws IOException {
+        return mapper.readValue(encoded, listType);
+    }
+}
@@ -0,0 +1,99 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.config.WebConfig;
+import com.game.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись страницы игроков конвертером JSON из {@link WebConfig}, как в ответе <code>GET /rest/players</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerConverterBenchmark {
+
+    private static final Type LIST_TYPE = new ParameterizedTypeReference<List<Player>>() { }.getType();
+
+    @Param({"3", "100", "1000"})
+    private int pageSize;
+
+    private MappingJackson2HttpMessageConverter converter;
+
+    private List<Player> players;
+
+    private final Output output = new Output();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig(new AppConfig().objectMapper()).configureMessageConverters(converters);
+        for (HttpMessageConverter<?> candidate : converters)
+            if (candidate instanceof MappingJackson2HttpMessageConverter)
+                converter = (MappingJackson2HttpMessageConverter) candidate;
+
+        players = BenchmarkData.players(pageSize, 42);
+        for (int i = 0; i < players.size(); i++)
+            players.get(i).setId((long) i + 1);
+    }
+
+    @Benchmark
+    public int writeList() throws IOException {
+        output.reset();
+        converter.write(players, LIST_TYPE, MediaType.APPLICATION_JSON, output);
+        return output.body.size();
+    }
+
+    /**
+     * Тело ответа в памяти, используемое повторно между вызовами
+     */
+    private static class Output implements HttpOutputMessage {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+
+        private HttpHeaders headers = new HttpHeaders();
+
+        private void reset() {
+            body.reset();
+            headers = new HttpHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.game.benchmark;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор игроков для больших наборов данных. Одинаковое зерно дает одинаковую последовательность игроков. <p>
+ * Распределения приближены к данным из test.sql: люди и воины встречаются чаще остальных,
+ * опыт распределен логнормально (медиана около 36 000, хвост до 10 000 000),
+ * даты рождения равномерно распределены с 2000 по 2010 год, заблокирован каждый пятый игрок
+ */
+public class PlayerGenerator {
+
+    private static final Race[] RACES = Race.values();
+    private static final double[] RACE_WEIGHTS = {30, 15, 15, 7, 15, 8, 10};
+
+    private static final Profession[] PROFESSIONS = Profession.values();
+    private static final double[] PROFESSION_WEIGHTS = {22, 15, 14, 12, 12, 5, 10, 10};
+
+    private static final String[] SYLLABLES = {
+            "ар", "бэ", "ви", "гор", "да", "эл", "жэ", "за", "ил", "ка", "лан", "ми",
+            "но", "ор", "пе", "ра", "си", "тар", "ун", "фе", "ха", "цэ", "шу", "эз"};
+
+    private static final String[] ADJECTIVES = {
+            "Быстрый", "Темный", "Светлый", "Тихий", "Грозный", "Мудрый", "Хитрый", "Старый",
+            "Юный", "Северный", "Лесной", "Горный", "Огненный", "Ледяной", "Ночной", "Верный"};
+
+    private static final String[] NOUNS = {
+            "Странник", "Охотник", "Страж", "Маг", "Воин", "Целитель", "Следопыт", "Рыцарь",
+            "Вор", "Друид", "Летун", "Кузнец", "Певец", "Лучник", "Шаман", "Мститель"};
+
+    private static final long BIRTHDAY_FROM = 946684800000L;  // 2000-01-01
+    private static final long BIRTHDAY_TO = 1293753600000L;   // 2010-12-31
+
+    private static final int MAX_EXPERIENCE = 10_000_000;
+
+    private final SplittableRandom random;
+
+    private final double[] raceCumulative = cumulative(RACE_WEIGHTS);
+
+    private final double[] professionCumulative = cumulative(PROFESSION_WEIGHTS);
+
+    public PlayerGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Создает следующего игрока без id, с вычисленными уровнем и опытом до следующего уровня
+     *
+     * @return игрок
+     */
+    public Player next() {
+        int experience = (int) Math.min(MAX_EXPERIENCE, Math.exp(10.5 + 1.5 * gaussian()));
+        int level = (int) (Math.sqrt(2500 + 200.0 * experience) - 50) / 100;
+        return new Player(name(), title(),
+                RACES[pick(raceCumulative)],
+                PROFESSIONS[pick(professionCumulative)],
+                new Date(BIRTHDAY_FROM + (long) (random.nextDouble() * (BIRTHDAY_TO - BIRTHDAY_FROM))),
+                random.nextInt(5) == 0,
+                experience,
+                level,
+                50 * (level + 1) * (level + 2) - experience);
+    }
+
+    private String name() {
+        StringBuilder name = new StringBuilder(12);
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++)
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.length() > 12 ? name.substring(0, 12) : name.toString();
+    }
+
+    private String title() {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+    }
+
+    private int pick(double[] cumulative) {
+        double value = random.nextDouble() * cumulative[cumulative.length - 1];
+        for (int i = 0; i < cumulative.length; i++)
+            if (value < cumulative[i])
+                return i;
+        return cumulative.length - 1;
+    }
+
+    /**
+     * Стандартное нормальное распределение по методу Бокса - Мюллера
+     */
+    private double gaussian() {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.dto.PlayerFilter;
+import com.game.entity.Player;
+import com.game.entity.Race;
+import com.game.repository.PlayerRepository;
+import com.game.service.PlayerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы к встроенной базе H2 через {@link PlayerRepository}, минуя кэши сервиса:
+ * страница и количество игроков по фильтру, игрок по id.
+ * Контекст поднимается с профилем <code>dev</code>, к 40 игрокам из test.sql добавляются сгенерированные
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerRepositoryBenchmark {
+
+    @Param({"0", "10000"})
+    private int extraPlayers;
+
+    private AnnotationConfigApplicationContext context;
+
+    private PlayerRepository playerRepository;
+
+    private Specification<Player> specification;
+
+    private Pageable pageable;
+
+    private long maxId;
+
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("dev");
+        context.register(AppConfig.class);
+        context.refresh();
+
+        PlayerServiceImpl playerService = context.getBean(PlayerServiceImpl.class);
+        playerRepository = context.getBean(PlayerRepository.class);
+
+        List<Player> players = BenchmarkData.players(extraPlayers, 42);
+        for (int from = 0; from < players.size(); from += 5_000)
+            playerService.createPlayers(players.subList(from, Math.min(from + 5_000, players.size())));
+
+        PlayerFilter filter = new PlayerFilter();
+        filter.setRace(Race.ELF);
+        filter.setBanned(false);
+        filter.setMinLevel(5);
+        specification = playerService.getSpecification(filter);
+        pageable = PageRequest.of(0, 20, Sort.by("id"));
+        maxId = playerRepository.count();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Player> findPage() {
+        return playerRepository.findAll(specification, pageable);
+    }
+
+    @Benchmark
+    public long count() {
+        return playerRepository.count(specification);
+    }
+
+    @Benchmark
+    public Optional<Player> findById() {
+        id = id % maxId + 1;
+        return playerRepository.findById(id);
+    }
+}
@@ -0,0 +1,119 @@
+package com.game.benchmark;
+
+import com.game.dto.PlayerFilter;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.service.PlayerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисления и проверки {@link PlayerServiceImpl}, выполняемые при каждом создании и изменении игрока:
+ * уровень и опыт до следующего уровня, проверка игрока и даты рождения, сборка спецификации из 8 фильтров.
+ * Измеряемые методы не обращаются к зависимостям сервиса, поэтому сервис создается без них
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerServiceBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private PlayerServiceImpl playerService;
+
+    private int[] experiences;
+
+    private Player player;
+
+    private Date birthday;
+
+    private PlayerFilter emptyFilter;
+
+    private PlayerFilter fullFilter;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        playerService = new PlayerServiceImpl(null, null, null, null, null, null,
+                Collections.emptyList(), null, 500, 10_000, 1_000);
+
+        List<Player> players = BenchmarkData.players(SIZE, 42);
+        experiences = new int[SIZE];
+        for (int i = 0; i < SIZE; i++)
+            experiences[i] = players.get(i).getExperience();
+        player = players.get(0);
+        birthday = player.getBirthday();
+
+        emptyFilter = new PlayerFilter();
+        fullFilter = new PlayerFilter();
+        fullFilter.setName("гр");
+        fullFilter.setTitle("номер");
+        fullFilter.setRace(Race.ELF);
+        fullFilter.setProfession(Profession.WARRIOR);
+        fullFilter.setAfter(946684800000L);
+        fullFilter.setBefore(1577836800000L);
+        fullFilter.setBanned(false);
+        fullFilter.setMinExperience(1_000);
+        fullFilter.setMaxExperience(5_000_000);
+        fullFilter.setMinLevel(3);
+        fullFilter.setMaxLevel(300);
+    }
+
+    private int nextExperience() {
+        index = (index + 1) & (SIZE - 1);
+        return experiences[index];
+    }
+
+    @Benchmark
+    public Integer getCurrentLevel() {
+        return playerService.getCurrentLevel(nextExperience());
+    }
+
+    @Benchmark
+    public Integer getExperienceUntilNextLevel() {
+        int experience = nextExperience();
+        return playerService.getExperienceUntilNextLevel(experience, playerService.getCurrentLevel(experience));
+    }
+
+    @Benchmark
+    public Player isPlayerValid() {
+        playerService.isPlayerValid(player);
+        return player;
+    }
+
+    @Benchmark
+    public Date isBirthdayValid() {
+        playerService.isBirthdayValid(birthday);
+        return birthday;
+    }
+
+    @Benchmark
+    public Specification<Player> getSpecificationEmptyFilter() {
+        return playerService.getSpecification(emptyFilter);
+    }
+
+    @Benchmark
+    public Specification<Player> getSpecificationFullFilter() {
+        return playerService.getSpecification(fullFilter);
+    }
+}
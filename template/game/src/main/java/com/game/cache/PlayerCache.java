@@ -0,0 +1,177 @@
+package com.game.cache;
+
+import com.game.entity.Player;
+import com.game.service.PlayerChangeListener;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Кэш игроков по id перед {@link com.game.repository.PlayerRepository}.
+ * Вытеснение по размеру выполняется политикой W-TinyLFU, записи устаревают через заданное время.
+ * Кэш хранит и выдает копии, поэтому изменение полученного игрока не меняет кэш.
+ * Версия удаленного игрока какое-то время хранится отдельно, чтобы опоздавшее уведомление
+ * об изменении или загрузка, начатая до удаления, не вернули игрока в кэш
+ */
+@Component
+@Order(PlayerChangeListener.STRUCTURE_ORDER)
+public class PlayerCache implements PlayerChangeListener {
+
+    private final Cache<Long, Player> cache;
+
+    private final Cache<Long, Long> tombstones;
+
+    private final boolean enabled;
+
+    @Autowired
+    public PlayerCache(@Value("${cache.player.enabled:true}") boolean enabled,
+                       @Value("${cache.player.maximum-size:10000}") long maximumSize,
+                       @Value("${cache.player.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                       @Value("${cache.player.tombstone-seconds:60}") long tombstoneSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.tombstones = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(tombstoneSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Возвращает игрока из кэша либо загружает его
+     *
+     * @param id id игрока
+     * @param loader загрузка игрока из базы данных
+     * @return копия игрока
+     */
+    public Optional<Player> get(Long id, Supplier<Optional<Player>> loader) {
+        if (!enabled)
+            return loader.get();
+
+        Player player = cache.get(id, key -> loader.get().filter(loaded -> !isDeleted(loaded))
+                .map(Player::new).orElse(null));
+        return Optional.ofNullable(player).map(Player::new);
+    }
+
+    /**
+     * Возвращает игрока, только если он уже есть в кэше
+     *
+     * @param id id игрока
+     * @return копия игрока
+     */
+    public Optional<Player> peek(Long id) {
+        return Optional.ofNullable(cache.getIfPresent(id)).map(Player::new);
+    }
+
+    /**
+     * Возвращает статистику кэша
+     *
+     * @return попадания, промахи, вытеснения и размер
+     */
+    public Stats stats() {
+        return new Stats(cache.stats(), cache.estimatedSize());
+    }
+
+    @Override
+    public void playerCreated(Player player) {
+        put(player);
+    }
+
+    @Override
+    public void playerUpdated(Player oldPlayer, Player newPlayer) {
+        put(newPlayer);
+    }
+
+    @Override
+    public void playerDeleted(Player player) {
+        // отметка ставится до удаления из кэша, поэтому запись, ожидающая ключ, ее уже увидит
+        tombstones.put(player.getId(), player.getVersion() == null ? Long.MAX_VALUE : player.getVersion());
+        cache.invalidate(player.getId());
+    }
+
+    @Override
+    public void playersReloaded() {
+        tombstones.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Уведомления об изменениях одного игрока могут прийти не по порядку,
+     * поэтому игрок с версией меньше закэшированной не заменяет ее,
+     * а игрок с версией не больше удаленной не возвращается в кэш
+     */
+    private void put(Player player) {
+        if (enabled)
+            cache.asMap().compute(player.getId(), (id, cached) -> {
+                if (isDeleted(player) || cached != null && isOlder(player, cached))
+                    return cached;
+                return new Player(player);
+            });
+    }
+
+    private boolean isDeleted(Player player) {
+        Long deleted = tombstones.getIfPresent(player.getId());
+        return deleted != null && (player.getVersion() == null || player.getVersion() <= deleted);
+    }
+
+    private static boolean isOlder(Player player, Player than) {
+        return player.getVersion() != null && than.getVersion() != null && player.getVersion() < than.getVersion();
+    }
+
+    /**
+     * Статистика кэша игроков
+     */
+    public static class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final double hitRate;
+        private final long loads;
+        private final long evictions;
+        private final long size;
+
+        private Stats(CacheStats stats, long size) {
+            this.hits = stats.hitCount();
+            this.misses = stats.missCount();
+            this.hitRate = stats.hitRate();
+            this.loads = stats.loadCount();
+            this.evictions = stats.evictionCount();
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            return hitRate;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
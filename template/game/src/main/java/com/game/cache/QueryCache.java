@@ -0,0 +1,337 @@
+package com.game.cache;
+
+import com.game.dto.PlayerFilter;
+import com.game.entity.Player;
+import com.game.service.PlayerChangeListener;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш результатов запросов списка и количества игроков.
+ * Ключ состоит из значений фильтров, сортировки и страницы вместе с номером поколения.
+ * Любое изменение игроков увеличивает поколение, после чего старые записи больше не читаются
+ * и вытесняются по объему либо по времени жизни.
+ * Получатель изменений вызывается после структур в памяти, см. {@link PlayerChangeListener#QUERY_CACHE_ORDER}
+ */
+@Component
+@Order(PlayerChangeListener.QUERY_CACHE_ORDER)
+public class QueryCache implements PlayerChangeListener {
+
+    private static final String LIST = "list";
+    private static final String COUNT = "count";
+
+    /**
+     * Оценка размера записей в байтах для ограничения занимаемой памяти
+     */
+    private static final int ENTRY_BYTES = 128;
+    private static final int PLAYER_BYTES = 160;
+
+    private final Cache<Key, Object> cache;
+
+    private final ConcurrentMap<String, KeyStats> keyStats = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final boolean enabled;
+    private final int trackedKeys;
+
+    @Autowired
+    public QueryCache(@Value("${cache.query.enabled:true}") boolean enabled,
+                      @Value("${cache.query.maximum-weight-bytes:16777216}") long maximumWeightBytes,
+                      @Value("${cache.query.expire-after-write-seconds:30}") long expireAfterWriteSeconds,
+                      @Value("${cache.query.tracked-keys:1000}") int trackedKeys) {
+        this.enabled = enabled;
+        this.trackedKeys = trackedKeys;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher(QueryCache::weigh)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает страницу игроков из кэша либо выполняет запрос
+     *
+     * @param filter
+     * @param pageable
+     * @param loader выполнение запроса
+     * @return срез игроков
+     */
+    @SuppressWarnings("unchecked")
+    public Slice<Player> getSlice(PlayerFilter filter, Pageable pageable, Supplier<Slice<Player>> loader) {
+        return (Slice<Player>) get(LIST, filter, Arrays.asList(pageable.getSort(), pageable.getPageNumber(),
+                pageable.getPageSize()), loader);
+    }
+
+    /**
+     * Возвращает количество игроков из кэша либо выполняет запрос
+     *
+     * @param filter
+     * @param loader выполнение запроса
+     * @return количество игроков
+     */
+    public Long getCount(PlayerFilter filter, Supplier<Long> loader) {
+        return (Long) get(COUNT, filter, Collections.emptyList(), loader);
+    }
+
+    /**
+     * Возвращает поколение таблицы игроков, которое увеличивается при каждом изменении
+     *
+     * @return номер поколения
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Возвращает статистику кэша
+     *
+     * @param limit сколько самых востребованных запросов вернуть
+     * @return общая статистика и статистика по запросам
+     */
+    public Stats stats(int limit) {
+        List<KeyStats> keys = keyStats.values().stream()
+                .sorted(Comparator.comparingLong(KeyStats::getHits).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+        return new Stats(cache.stats(), cache.estimatedSize(), cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L), generation.get(), keys);
+    }
+
+    @Override
+    public void playerCreated(Player player) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void playerUpdated(Player oldPlayer, Player newPlayer) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void playerDeleted(Player player) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void playersReloaded() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private Object get(String kind, PlayerFilter filter, List<Object> page, Supplier<?> loader) {
+        if (!enabled)
+            return loader.get();
+
+        // поколение читается до выполнения запроса, поэтому результат не может оказаться новее ключа
+        Key key = new Key(kind, values(filter), page, generation.get());
+        boolean[] loaded = new boolean[1];
+        Object value = cache.get(key, k -> {
+            loaded[0] = true;
+            return loader.get();
+        });
+
+        KeyStats stats = stats(label(kind, filter, page));
+        if (stats != null) {
+            if (loaded[0])
+                stats.misses.increment();
+            else
+                stats.hits.increment();
+        }
+        return value;
+    }
+
+    private KeyStats stats(String query) {
+        KeyStats stats = keyStats.get(query);
+        if (stats != null || keyStats.size() >= trackedKeys)
+            return stats;
+        return keyStats.computeIfAbsent(query, KeyStats::new);
+    }
+
+    private static int weigh(Key key, Object value) {
+        int weight = ENTRY_BYTES;
+        if (value instanceof Slice)
+            weight += PLAYER_BYTES * ((Slice<?>) value).getNumberOfElements();
+        return weight;
+    }
+
+    /**
+     * Значения фильтров в постоянном порядке, незаданные фильтры равны <code>null</code>
+     */
+    private static List<Object> values(PlayerFilter filter) {
+        return Arrays.asList(filter.getName(), filter.getTitle(), filter.getRace(), filter.getProfession(),
+                filter.getAfter(), filter.getBefore(), filter.getBanned(), filter.getMinExperience(),
+                filter.getMaxExperience(), filter.getMinLevel(), filter.getMaxLevel());
+    }
+
+    /**
+     * Строка запроса для статистики. Значения не экранируются, поэтому для ключа кэша она не годится
+     */
+    private static String label(String kind, PlayerFilter filter, List<Object> page) {
+        String query = normalize(filter);
+        if (!page.isEmpty())
+            query += "&order=" + page.get(0) + "&pageNumber=" + page.get(1) + "&pageSize=" + page.get(2);
+        return kind + ":" + query;
+    }
+
+    /**
+     * Строит строку запроса из заданных фильтров в постоянном порядке
+     */
+    static String normalize(PlayerFilter filter) {
+        StringBuilder query = new StringBuilder();
+        append(query, "name", filter.getName());
+        append(query, "title", filter.getTitle());
+        append(query, "race", filter.getRace());
+        append(query, "profession", filter.getProfession());
+        append(query, "after", filter.getAfter());
+        append(query, "before", filter.getBefore());
+        append(query, "banned", filter.getBanned());
+        append(query, "minExperience", filter.getMinExperience());
+        append(query, "maxExperience", filter.getMaxExperience());
+        append(query, "minLevel", filter.getMinLevel());
+        append(query, "maxLevel", filter.getMaxLevel());
+        return query.toString();
+    }
+
+    private static void append(StringBuilder query, String name, Object value) {
+        if (value == null)
+            return;
+        if (query.length() > 0)
+            query.append('&');
+        query.append(name).append('=').append(value);
+    }
+
+    private static final class Key {
+
+        private final String kind;
+        private final List<Object> filter;
+        private final List<Object> page;
+        private final long generation;
+
+        private Key(String kind, List<Object> filter, List<Object> page, long generation) {
+            this.kind = kind;
+            this.filter = filter;
+            this.page = page;
+            this.generation = generation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return generation == key.generation && kind.equals(key.kind) && filter.equals(key.filter)
+                    && page.equals(key.page);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, filter, page, generation);
+        }
+    }
+
+    /**
+     * Статистика обращений к кэшу по одному запросу
+     */
+    public static class KeyStats {
+
+        private final String query;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private KeyStats(String query) {
+            this.query = query;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+
+    /**
+     * Статистика кэша запросов
+     */
+    public static class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final double hitRate;
+        private final long evictions;
+        private final long size;
+        private final long weightBytes;
+        private final long generation;
+        private final List<KeyStats> queries;
+
+        private Stats(CacheStats stats, long size, long weightBytes, long generation, List<KeyStats> queries) {
+            this.hits = stats.hitCount();
+            this.misses = stats.missCount();
+            this.hitRate = stats.hitRate();
+            this.evictions = stats.evictionCount();
+            this.size = size;
+            this.weightBytes = weightBytes;
+            this.generation = generation;
+            this.queries = queries;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            return hitRate;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getWeightBytes() {
+            return weightBytes;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public List<KeyStats> getQueries() {
+            return queries;
+        }
+    }
+}
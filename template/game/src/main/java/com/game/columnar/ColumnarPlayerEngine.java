@@ -0,0 +1,283 @@
+package com.game.columnar;
+
+import com.game.dto.PlayerFilter;
+import com.game.dto.PlayerSearchResult;
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.repository.PlayerRepository;
+import com.game.service.PlayerChangeListener;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Копия таблицы игроков по столбцам в памяти.
+ * Отвечает на запросы списка и количества игроков без обращения к базе данных.
+ * Если запрос не может быть выполнен в памяти, методы возвращают <code>null</code>
+ * и сервис выполняет запрос через JPA
+ */
+@Component
+@Order(PlayerChangeListener.STRUCTURE_ORDER)
+public class ColumnarPlayerEngine implements PlayerChangeListener, InitializingBean {
+
+    private final PlayerColumns columns = new PlayerColumns(ZoneId.systemDefault());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final PlayerRepository playerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int parallelThreshold;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ColumnarPlayerEngine(PlayerRepository playerRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${columnar.enabled:true}") boolean enabled,
+                                @Value("${columnar.parallel-threshold:100000}") int parallelThreshold) {
+        this.playerRepository = playerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Загружает всех игроков из базы данных.
+     * Пока идет загрузка, запросы выполняются через JPA
+     */
+    public void rebuild() {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            columns.clear();
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> rows = playerRepository.streamColumns()) {
+                    rows.forEach(row -> columns.upsert(toPlayer(row)));
+                }
+                return null;
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает страницу игроков согласно фильтрам
+     *
+     * @param filter
+     * @param pageable
+     * @return срез игроков либо <code>null</code>, если запрос нужно выполнить через JPA
+     */
+    public Slice<Player> findSlice(PlayerFilter filter, Pageable pageable) {
+        PlayerColumns.SortKey key = sortKey(pageable);
+        if (key == null || !isSupported(filter) || !lock.readLock().tryLock())
+            return null;
+
+        try {
+            if (!isServing())
+                return null;
+
+            return slice(columns.select(selection(filter), isParallel()), key, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество игроков согласно фильтрам
+     *
+     * @param filter
+     * @return количество игроков либо <code>null</code>, если запрос нужно выполнить через JPA
+     */
+    public Long count(PlayerFilter filter) {
+        if (!isSupported(filter) || !lock.readLock().tryLock())
+            return null;
+
+        try {
+            if (!isServing())
+                return null;
+
+            return PlayerColumns.count(columns.select(selection(filter), isParallel()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает страницу игроков и их количество за один проход по столбцам
+     *
+     * @param filter
+     * @param pageable
+     * @return результат поиска либо <code>null</code>, если запрос нужно выполнить через JPA
+     */
+    public PlayerSearchResult search(PlayerFilter filter, Pageable pageable) {
+        PlayerColumns.SortKey key = sortKey(pageable);
+        if (key == null || !isSupported(filter) || !lock.readLock().tryLock())
+            return null;
+
+        try {
+            if (!isServing())
+                return null;
+
+            long[] mask = columns.select(selection(filter), isParallel());
+            return new PlayerSearchResult(slice(mask, key, pageable).getContent(), PlayerColumns.count(mask));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void playerCreated(Player player) {
+        write(() -> columns.upsert(player));
+    }
+
+    @Override
+    public void playerUpdated(Player oldPlayer, Player newPlayer) {
+        write(() -> columns.upsert(newPlayer));
+    }
+
+    @Override
+    public void playerDeleted(Player player) {
+        write(() -> columns.delete(player.getId()));
+    }
+
+    @Override
+    public void playersReloaded() {
+        rebuild();
+    }
+
+    private void write(Runnable change) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isServing() {
+        return ready && columns.isComplete();
+    }
+
+    private boolean isParallel() {
+        return columns.size() >= parallelThreshold;
+    }
+
+    private Slice<Player> slice(long[] mask, PlayerColumns.SortKey key, Pageable pageable) {
+        int limit = pageable.getPageSize() + 1;
+        int[] rows = key == PlayerColumns.SortKey.ID
+                ? columns.rowsById(mask, pageable.getOffset(), limit)
+                : columns.rowsByKey(mask, key, pageable.getOffset(), limit);
+
+        boolean hasNext = rows.length == limit;
+        List<Player> players = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length && i < pageable.getPageSize(); i++)
+            players.add(columns.toPlayer(rows[i]));
+        return new SliceImpl<>(players, pageable, hasNext);
+    }
+
+    /**
+     * Подстроки имени и титула сравниваются по правилам сопоставления базы данных,
+     * такие запросы выполняются через JPA
+     */
+    private boolean isSupported(PlayerFilter filter) {
+        return enabled && filter.getName() == null && filter.getTitle() == null;
+    }
+
+    /**
+     * Сортировка по имени зависит от сопоставления базы данных и в памяти не выполняется
+     */
+    private static PlayerColumns.SortKey sortKey(Pageable pageable) {
+        if (pageable.isUnpaged())
+            return null;
+
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted())
+            return PlayerColumns.SortKey.ID;
+
+        Iterator<Sort.Order> orders = sort.iterator();
+        Sort.Order order = orders.next();
+        if (orders.hasNext() || !order.isAscending())
+            return null;
+
+        switch (order.getProperty()) {
+            case "id":
+                return PlayerColumns.SortKey.ID;
+            case "experience":
+                return PlayerColumns.SortKey.EXPERIENCE;
+            case "level":
+                return PlayerColumns.SortKey.LEVEL;
+            case "birthday":
+                return PlayerColumns.SortKey.BIRTHDAY;
+            default:
+                return null;
+        }
+    }
+
+    private PlayerColumns.Selection selection(PlayerFilter filter) {
+        PlayerColumns.Selection selection = new PlayerColumns.Selection();
+        if (filter.getRace() != null)
+            selection.race = filter.getRace().ordinal();
+        if (filter.getProfession() != null)
+            selection.profession = filter.getProfession().ordinal();
+        selection.banned = filter.getBanned();
+        if (filter.getMinExperience() != null)
+            selection.minExperience = filter.getMinExperience();
+        if (filter.getMaxExperience() != null)
+            selection.maxExperience = filter.getMaxExperience();
+        if (filter.getMinLevel() != null)
+            selection.minLevel = filter.getMinLevel();
+        if (filter.getMaxLevel() != null)
+            selection.maxLevel = filter.getMaxLevel();
+
+        // база данных сравнивает дату с параметром как начало дня с моментом времени
+        if (filter.getAfter() != null) {
+            int day = columns.toEpochDay(filter.getAfter());
+            selection.minDay = columns.startOfDay(day) < filter.getAfter() ? day + 1 : day;
+        }
+        if (filter.getBefore() != null)
+            selection.maxDay = columns.toEpochDay(filter.getBefore());
+        return selection;
+    }
+
+    private static Player toPlayer(Object[] row) {
+        Player player = new Player((String) row[1], (String) row[2], (Race) row[3], (Profession) row[4],
+                (Date) row[5], (Boolean) row[6], (Integer) row[7], (Integer) row[8], (Integer) row[9]);
+        player.setId(((Number) row[0]).longValue());
+        player.setVersion(row[10] == null ? null : ((Number) row[10]).longValue());
+        return player;
+    }
+}
@@ -0,0 +1,603 @@
+package com.game.columnar;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Копия таблицы игроков по столбцам в примитивных массивах.
+ * Строки упорядочены по id, удаленные строки помечаются в битовой карте и периодически вычищаются.
+ * Класс не потокобезопасен, синхронизацию обеспечивает {@link ColumnarPlayerEngine}
+ */
+class PlayerColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Количество слов битовой карты, обрабатываемых одной задачей при параллельном сканировании
+     */
+    private static final int WORDS_PER_TASK = 1024;
+
+    private static final Race[] RACES = Race.values();
+    private static final Profession[] PROFESSIONS = Profession.values();
+
+    private final ZoneId zone;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private byte[] races = new byte[INITIAL_CAPACITY];
+    private byte[] professions = new byte[INITIAL_CAPACITY];
+    private int[] experiences = new int[INITIAL_CAPACITY];
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private int[] untilNextLevels = new int[INITIAL_CAPACITY];
+    private int[] birthdays = new int[INITIAL_CAPACITY];
+
+    /**
+     * Версии строк, <code>-1</code>, если версия неизвестна. У удаленной строки версия сохраняется
+     * до уплотнения, чтобы запоздавшее изменение не вернуло игрока
+     */
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] banned = new long[words(INITIAL_CAPACITY)];
+    private long[] alive = new long[words(INITIAL_CAPACITY)];
+    private long[] nulls = new long[words(INITIAL_CAPACITY)];
+
+    private int size;
+    private int deleted;
+
+    /**
+     * Количество живых строк с пустыми значениями в столбцах фильтров.
+     * Такие строки сравниваются базой данных по правилам NULL, поэтому запросы к ним не обслуживаются
+     */
+    private int incomplete;
+
+    PlayerColumns(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    int size() {
+        return size - deleted;
+    }
+
+    boolean isComplete() {
+        return incomplete == 0;
+    }
+
+    /**
+     * Добавляет или заменяет строку игрока.
+     * Игрок с версией меньше сохраненной пропускается: уведомления об изменениях могут прийти не по порядку
+     *
+     * @param player игрок с id
+     * @return <code>false</code>, если сохранена более новая версия игрока
+     */
+    boolean upsert(Player player) {
+        long id = player.getId();
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            if (player.getVersion() != null && player.getVersion() < versions[row])
+                return false;
+
+            if (isAlive(row)) {
+                if (isIncomplete(row))
+                    incomplete--;
+            } else {
+                setBit(alive, row, true);
+                deleted--;
+            }
+        } else {
+            row = -row - 1;
+            insertAt(row);
+            ids[row] = id;
+            setBit(alive, row, true);
+        }
+
+        write(row, player);
+        if (isIncomplete(row))
+            incomplete++;
+        return true;
+    }
+
+    /**
+     * Удаляет строку игрока
+     *
+     * @param id id игрока
+     * @return <code>false</code>, если строки нет
+     */
+    boolean delete(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0 || !isAlive(row))
+            return false;
+
+        if (isIncomplete(row))
+            incomplete--;
+        setBit(alive, row, false);
+        names[row] = null;
+        titles[row] = null;
+        deleted++;
+
+        if (deleted > INITIAL_CAPACITY && deleted > size / 4)
+            compact();
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(titles, 0, size, null);
+        Arrays.fill(alive, 0);
+        Arrays.fill(nulls, 0);
+        size = 0;
+        deleted = 0;
+        incomplete = 0;
+    }
+
+    /**
+     * Восстанавливает игрока по строке
+     *
+     * @param row номер строки
+     * @return новый объект игрока
+     */
+    Player toPlayer(int row) {
+        Player player = new Player(names[row], titles[row],
+                races[row] < 0 ? null : RACES[races[row]],
+                professions[row] < 0 ? null : PROFESSIONS[professions[row]],
+                Date.from(LocalDate.ofEpochDay(birthdays[row]).atStartOfDay(zone).toInstant()),
+                getBit(banned, row),
+                experiences[row], levels[row], untilNextLevels[row]);
+        player.setId(ids[row]);
+        if (versions[row] >= 0)
+            player.setVersion(versions[row]);
+        return player;
+    }
+
+    /**
+     * Возвращает битовую карту строк, подходящих под условия
+     *
+     * @param selection условия отбора
+     * @param parallel сканировать столбцы параллельно
+     * @return битовая карта строк
+     */
+    long[] select(Selection selection, boolean parallel) {
+        int wordCount = words(size);
+        if (selection.isEmpty())
+            return new long[wordCount];
+
+        long[] mask = Arrays.copyOf(alive, wordCount);
+
+        if (!parallel || wordCount <= WORDS_PER_TASK) {
+            select(selection, mask, 0, wordCount);
+            return mask;
+        }
+
+        int tasks = (wordCount + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task ->
+                select(selection, mask, task * WORDS_PER_TASK, Math.min(wordCount, (task + 1) * WORDS_PER_TASK)));
+        return mask;
+    }
+
+    /**
+     * Считает строки в битовой карте
+     */
+    static long count(long[] mask) {
+        long count = 0;
+        for (long word : mask)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Возвращает строки страницы в порядке id
+     *
+     * @param mask битовая карта строк
+     * @param offset сколько строк пропустить
+     * @param limit сколько строк вернуть
+     * @return номера строк
+     */
+    int[] rowsById(long[] mask, long offset, int limit) {
+        int[] rows = new int[limit];
+        int found = 0;
+        long skip = offset;
+        for (int w = 0; w < mask.length && found < limit; w++) {
+            long word = mask[w];
+            int bits = Long.bitCount(word);
+            if (skip >= bits) {
+                skip -= bits;
+                continue;
+            }
+            while (word != 0 && found < limit) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (skip > 0)
+                    skip--;
+                else
+                    rows[found++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    /**
+     * Возвращает строки страницы в порядке (ключ, id)
+     *
+     * @param mask битовая карта строк
+     * @param key столбец сортировки
+     * @param offset сколько строк пропустить
+     * @param limit сколько строк вернуть
+     * @return номера строк
+     */
+    int[] rowsByKey(long[] mask, SortKey key, long offset, int limit) {
+        int[] column = column(key);
+        long total = count(mask);
+        long wanted = Math.min(total, offset + limit);
+        if (offset >= wanted)
+            return new int[0];
+
+        // строки идут по возрастанию id, поэтому младшие биты номера строки задают порядок при равных ключах
+        long[] sorted = wanted * 8 < total
+                ? topK(mask, column, (int) wanted)
+                : all(mask, column, (int) total);
+
+        int[] rows = new int[(int) (wanted - offset)];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = (int) sorted[(int) offset + i];
+        return rows;
+    }
+
+    int toEpochDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    long startOfDay(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private void select(Selection selection, long[] mask, int fromWord, int toWord) {
+        if (selection.race >= 0)
+            andEquals(races, selection.race, mask, fromWord, toWord);
+        if (selection.profession >= 0)
+            andEquals(professions, selection.profession, mask, fromWord, toWord);
+        if (selection.banned != null)
+            andBits(banned, selection.banned, mask, fromWord, toWord);
+        if (selection.hasExperience())
+            andRange(experiences, selection.minExperience, selection.maxExperience, mask, fromWord, toWord);
+        if (selection.hasLevel())
+            andRange(levels, selection.minLevel, selection.maxLevel, mask, fromWord, toWord);
+        if (selection.hasBirthday())
+            andRange(birthdays, selection.minDay, selection.maxDay, mask, fromWord, toWord);
+    }
+
+    /**
+     * Оставляет строки, у которых <code>min &lt;= column[row] &lt;= max</code>.
+     * Сравнение без ветвлений: знак <code>(value - min) | (max - value)</code> отрицателен вне диапазона
+     */
+    private void andRange(int[] column, long min, long max, long[] mask, int fromWord, int toWord) {
+        for (int w = fromWord; w < toWord; w++) {
+            long word = mask[w];
+            if (word == 0)
+                continue;
+
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long hits = 0;
+            for (int j = 0; j < end; j++) {
+                long value = column[base + j];
+                hits |= ((((value - min) | (max - value)) >>> 63) ^ 1L) << j;
+            }
+            mask[w] = word & hits;
+        }
+    }
+
+    /**
+     * Оставляет строки, у которых <code>column[row] == value</code>
+     */
+    private void andEquals(byte[] column, int value, long[] mask, int fromWord, int toWord) {
+        for (int w = fromWord; w < toWord; w++) {
+            long word = mask[w];
+            if (word == 0)
+                continue;
+
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long hits = 0;
+            for (int j = 0; j < end; j++)
+                hits |= ((long) ((((column[base + j] ^ value) & 0xFF) - 1) >>> 31)) << j;
+            mask[w] = word & hits;
+        }
+    }
+
+    private static void andBits(long[] bits, boolean value, long[] mask, int fromWord, int toWord) {
+        if (value) {
+            for (int w = fromWord; w < toWord; w++)
+                mask[w] &= bits[w];
+        } else {
+            for (int w = fromWord; w < toWord; w++)
+                mask[w] &= ~bits[w];
+        }
+    }
+
+    private int[] column(SortKey key) {
+        switch (key) {
+            case EXPERIENCE:
+                return experiences;
+            case LEVEL:
+                return levels;
+            case BIRTHDAY:
+                return birthdays;
+            default:
+                throw new IllegalArgumentException("Unsupported sort key " + key);
+        }
+    }
+
+    /**
+     * Упаковывает ключ и номер строки в одно число, порядок чисел совпадает с порядком (ключ, строка)
+     */
+    private static long pack(int key, int row) {
+        return ((long) (key ^ Integer.MIN_VALUE) << 32) | row;
+    }
+
+    private static int unpackRow(long packed) {
+        return (int) packed;
+    }
+
+    private static long[] all(long[] mask, int[] column, int total) {
+        long[] packed = new long[total];
+        int i = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                packed[i++] = pack(column[row], row);
+            }
+        }
+        Arrays.sort(packed);
+        for (int j = 0; j < packed.length; j++)
+            packed[j] = unpackRow(packed[j]);
+        return packed;
+    }
+
+    /**
+     * Выбирает k наименьших строк через двоичную кучу, не сортируя все совпадения
+     */
+    private static long[] topK(long[] mask, int[] column, int k) {
+        long[] heap = new long[k];
+        int size = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                long value = pack(column[row], row);
+                if (size < k) {
+                    heap[size] = value;
+                    siftUp(heap, size++);
+                } else if (value < heap[0]) {
+                    heap[0] = value;
+                    siftDown(heap, size);
+                }
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        long[] rows = new long[size];
+        for (int j = 0; j < size; j++)
+            rows[j] = unpackRow(heap[j]);
+        return rows;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value)
+                break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child])
+                child++;
+            if (value >= heap[child])
+                break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private void write(int row, Player player) {
+        names[row] = player.getName();
+        titles[row] = player.getTitle();
+        races[row] = player.getRace() == null ? -1 : (byte) player.getRace().ordinal();
+        professions[row] = player.getProfession() == null ? -1 : (byte) player.getProfession().ordinal();
+        experiences[row] = player.getExperience() == null ? 0 : player.getExperience();
+        levels[row] = player.getLevel() == null ? 0 : player.getLevel();
+        untilNextLevels[row] = player.getUntilNextLevel() == null ? 0 : player.getUntilNextLevel();
+        birthdays[row] = player.getBirthday() == null ? 0 : toEpochDay(player.getBirthday().getTime());
+        versions[row] = player.getVersion() == null ? -1 : player.getVersion();
+        setBit(banned, row, Boolean.TRUE.equals(player.getBanned()));
+        setBit(nulls, row, player.getRace() == null || player.getProfession() == null
+                || player.getExperience() == null || player.getLevel() == null
+                || player.getBirthday() == null || player.getBanned() == null);
+    }
+
+    private boolean isIncomplete(int row) {
+        return getBit(nulls, row);
+    }
+
+    /**
+     * Освобождает место под строку, сдвигая хвост столбцов
+     */
+    private void insertAt(int row) {
+        ensureCapacity(size + 1);
+        int tail = size - row;
+        if (tail > 0) {
+            System.arraycopy(ids, row, ids, row + 1, tail);
+            System.arraycopy(names, row, names, row + 1, tail);
+            System.arraycopy(titles, row, titles, row + 1, tail);
+            System.arraycopy(races, row, races, row + 1, tail);
+            System.arraycopy(professions, row, professions, row + 1, tail);
+            System.arraycopy(experiences, row, experiences, row + 1, tail);
+            System.arraycopy(levels, row, levels, row + 1, tail);
+            System.arraycopy(untilNextLevels, row, untilNextLevels, row + 1, tail);
+            System.arraycopy(birthdays, row, birthdays, row + 1, tail);
+            System.arraycopy(versions, row, versions, row + 1, tail);
+            for (int i = size; i > row; i--) {
+                setBit(banned, i, getBit(banned, i - 1));
+                setBit(alive, i, getBit(alive, i - 1));
+                setBit(nulls, i, getBit(nulls, i - 1));
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Вычищает удаленные строки
+     */
+    private void compact() {
+        int target = 0;
+        for (int row = 0; row < size; row++) {
+            if (!isAlive(row))
+                continue;
+
+            if (target != row) {
+                ids[target] = ids[row];
+                names[target] = names[row];
+                titles[target] = titles[row];
+                races[target] = races[row];
+                professions[target] = professions[row];
+                experiences[target] = experiences[row];
+                levels[target] = levels[row];
+                untilNextLevels[target] = untilNextLevels[row];
+                birthdays[target] = birthdays[row];
+                versions[target] = versions[row];
+                setBit(banned, target, getBit(banned, row));
+                setBit(nulls, target, getBit(nulls, row));
+                setBit(alive, target, true);
+            }
+            target++;
+        }
+        for (int row = target; row < size; row++) {
+            names[row] = null;
+            titles[row] = null;
+            setBit(alive, row, false);
+            setBit(banned, row, false);
+            setBit(nulls, row, false);
+        }
+        size = target;
+        deleted = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length)
+            return;
+
+        int length = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, length);
+        names = Arrays.copyOf(names, length);
+        titles = Arrays.copyOf(titles, length);
+        races = Arrays.copyOf(races, length);
+        professions = Arrays.copyOf(professions, length);
+        experiences = Arrays.copyOf(experiences, length);
+        levels = Arrays.copyOf(levels, length);
+        untilNextLevels = Arrays.copyOf(untilNextLevels, length);
+        birthdays = Arrays.copyOf(birthdays, length);
+        versions = Arrays.copyOf(versions, length);
+        banned = Arrays.copyOf(banned, words(length));
+        alive = Arrays.copyOf(alive, words(length));
+        nulls = Arrays.copyOf(nulls, words(length));
+    }
+
+    private boolean isAlive(int row) {
+        return getBit(alive, row);
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index, boolean value) {
+        if (value)
+            bits[index >>> 6] |= 1L << index;
+        else
+            bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Возвращает id живых строк, используется для проверки согласованности
+     */
+    List<Long> ids() {
+        List<Long> result = new ArrayList<>(size());
+        for (int row = 0; row < size; row++)
+            if (isAlive(row))
+                result.add(ids[row]);
+        return result;
+    }
+
+    /**
+     * Столбцы, по которым возможна сортировка в памяти
+     */
+    enum SortKey {
+        ID, EXPERIENCE, LEVEL, BIRTHDAY
+    }
+
+    /**
+     * Условия отбора строк в виде значений столбцов
+     */
+    static class Selection {
+
+        /**
+         * Границы открытых диапазонов, разности с ними не переполняют <code>long</code>
+         */
+        private static final long MIN = Integer.MIN_VALUE;
+        private static final long MAX = Integer.MAX_VALUE;
+
+        int race = -1;
+        int profession = -1;
+        Boolean banned;
+        long minExperience = MIN;
+        long maxExperience = MAX;
+        long minLevel = MIN;
+        long maxLevel = MAX;
+        long minDay = MIN;
+        long maxDay = MAX;
+
+        boolean hasExperience() {
+            return minExperience != MIN || maxExperience != MAX;
+        }
+
+        boolean hasLevel() {
+            return minLevel != MIN || maxLevel != MAX;
+        }
+
+        boolean hasBirthday() {
+            return minDay != MIN || maxDay != MAX;
+        }
+
+        /**
+         * Диапазоны без значений ничего не отбирают
+         */
+        boolean isEmpty() {
+            return minExperience > maxExperience || minLevel > maxLevel || minDay > maxDay;
+        }
+    }
+}
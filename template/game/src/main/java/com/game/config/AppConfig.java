@@ -1,32 +1,68 @@
 package com.game.config;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.executor.RequestExecutor;
+import com.game.metrics.MethodMetricsPostProcessor;
+import com.game.metrics.MethodMetricsRegistry;
+import com.game.metrics.PoolMetrics;
+import com.game.metrics.QueryCounter;
+import com.game.metrics.SqlMetrics;
+import com.game.metrics.TracingDataSource;
+import com.game.migration.SchemaMigrator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Controller;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.util.Properties;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
 
 @Configuration
 @EnableTransactionManagement
-@ComponentScan("com.game")
+@ComponentScan(basePackages = "com.game", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = Controller.class),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebConfig.class)})
 @EnableJpaRepositories(basePackages = "com.game.repository")
+@PropertySource(value = "classpath:application.properties", encoding = "UTF-8")
 public class AppConfig {
 
+    private Environment env;
+
+    @Autowired
+    public void setEnv(Environment env) {
+        this.env = env;
+    }
+
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -41,27 +77,144 @@ public class AppConfig {
     }
 
     @Profile("prod")
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/rpg?serverTimezone=UTC&characterEncoding=UTF-8");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("rpg");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(env.getRequiredProperty("db.url"));
+        config.setUsername(env.getRequiredProperty("db.username"));
+        config.setPassword(env.getRequiredProperty("db.password"));
+
+        config.setMinimumIdle(env.getProperty("db.pool.minimum-idle", Integer.class, 5));
+        config.setMaximumPoolSize(env.getProperty("db.pool.maximum-size", Integer.class, 20));
+        config.setIdleTimeout(env.getProperty("db.pool.idle-timeout-ms", Long.class, 600_000L));
+        config.setMaxLifetime(env.getProperty("db.pool.max-lifetime-ms", Long.class, 1_800_000L));
+        config.setConnectionTimeout(env.getProperty("db.pool.connection-timeout-ms", Long.class, 3_000L));
+        config.setValidationTimeout(env.getProperty("db.pool.validation-timeout-ms", Long.class, 1_000L));
+        config.setLeakDetectionThreshold(env.getProperty("db.pool.leak-detection-threshold-ms", Long.class, 20_000L));
+
+        // кэш подготовленных выражений на стороне драйвера MySQL
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize",
+                env.getProperty("db.pool.prep-stmt-cache-size", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit",
+                env.getProperty("db.pool.prep-stmt-cache-sql-limit", "2048"));
+        // пакеты вставок отправляются одним многострочным INSERT
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // выборка курсором на сервере, иначе драйвер читает весь результат в память
+        config.addDataSourceProperty("useCursorFetch", "true");
+
+        config.setMetricsTrackerFactory(poolMetrics());
+        config.setRegisterMbeans(true);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        if (env.getProperty("db.migrate", Boolean.class, true))
+            new SchemaMigrator(dataSource).migrate();
+
+        return traced(dataSource);
     }
 
     @Profile("dev")
     @Bean(name = "dataSource")
     public DataSource dataSourceForTests() {
 
-        return new EmbeddedDatabaseBuilder()
+        return traced(new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
                 .setScriptEncoding("UTF-8")
                 .ignoreFailedDrops(true)
                 .addScript("test.sql")
-                .build();
+                .build());
+    }
+
+    /**
+     * Преобразователь JSON, общий для конвертеров сообщений, выгрузки и загрузки игроков
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        return withFieldVisibility(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * Настраивает преобразователь на чтение и запись полей игрока, а не его методов.
+     * Используется для JSON и для двоичных форматов CBOR и Smile
+     *
+     * @param objectMapper преобразователь
+     * @return тот же преобразователь
+     */
+    public static ObjectMapper withFieldVisibility(ObjectMapper objectMapper) {
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
+    /**
+     * Метрики обработчиков запросов и методов сервиса. Статический метод, потому что
+     * от реестра зависят обработчики бинов, которые создаются раньше конфигурации
+     */
+    @Bean
+    public static MethodMetricsRegistry methodMetricsRegistry() {
+        return new MethodMetricsRegistry();
+    }
+
+    @Bean
+    public static MethodMetricsPostProcessor serviceMetricsPostProcessor(MethodMetricsRegistry registry) {
+        return new MethodMetricsPostProcessor(registry);
+    }
+
+    @Bean
+    public SqlMetrics sqlMetrics() {
+        return new SqlMetrics(env.getProperty("sql.slow-threshold-ms", Long.class, 200L),
+                env.getProperty("sql.explain-slow", Boolean.class, false),
+                env.getProperty("sql.request-query-warn", Integer.class, 20),
+                env.getProperty("sql.slow-log-size", Integer.class, 50));
+    }
+
+    @Bean
+    public PoolMetrics poolMetrics() {
+        return new PoolMetrics();
+    }
+
+    /**
+     * Пул для параллельного выполнения запросов страницы и количества игроков.
+     * При переполнении очереди запрос выполняется в вызывающем потоке
+     */
+    @Bean(name = "queryExecutor")
+    public ThreadPoolTaskExecutor queryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("player-query-");
+        executor.setCorePoolSize(env.getProperty("query.executor.pool-size", Integer.class, 8));
+        executor.setMaxPoolSize(env.getProperty("query.executor.pool-size", Integer.class, 8));
+        executor.setQueueCapacity(env.getProperty("query.executor.queue-capacity", Integer.class, 256));
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(QueryCounter::propagate);
+        return executor;
+    }
+
+    /**
+     * Пул чтения: список, количество и поиск игроков
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutor readExecutor() {
+        return requestExecutor("read", 16, 200, 2_000L);
+    }
+
+    /**
+     * Пул записи: пакетное создание, изменение и удаление игроков
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutor writeExecutor() {
+        return requestExecutor("write", 8, 100, 5_000L);
+    }
+
+    /**
+     * Пул выгрузки и загрузки игроков. Они долго занимают поток и соединение, поэтому пул небольшой
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutor exportExecutor() {
+        return requestExecutor("export", 2, 4, 10_000L);
     }
 
     @Bean
@@ -77,6 +230,28 @@ public class AppConfig {
         return new PersistenceExceptionTranslationPostProcessor();
     }
 
+    /**
+     * При <code>executor.virtual-threads=true</code> и JVM не ниже 21 задачи выполняются на виртуальных потоках,
+     * иначе на пуле обычных потоков
+     */
+    private RequestExecutor requestExecutor(String name, int poolSize, int queueCapacity, long timeoutMillis) {
+        return new RequestExecutor(name,
+                env.getProperty("executor." + name + ".pool-size", Integer.class, poolSize),
+                env.getProperty("executor." + name + ".queue-capacity", Integer.class, queueCapacity),
+                env.getProperty("executor." + name + ".timeout-ms", Long.class, timeoutMillis),
+                env.getProperty("executor.virtual-threads", Boolean.class, false));
+    }
+
+    /**
+     * При <code>sql.tracing.enabled=true</code> оборачивает источник соединений, измеряя каждый SQL запрос.
+     * Обертка сама является бином источника, чтобы JPA, транзакции и тестовые скрипты видели один объект
+     */
+    private DataSource traced(DataSource dataSource) {
+        if (!env.getProperty("sql.tracing.enabled", Boolean.class, true))
+            return dataSource;
+        return new TracingDataSource(dataSource, sqlMetrics());
+    }
+
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
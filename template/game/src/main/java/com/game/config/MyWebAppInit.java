@@ -1,7 +1,10 @@
 package com.game.config;
 
+import org.springframework.web.filter.DelegatingFilterProxy;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
+import javax.servlet.Filter;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 
@@ -28,4 +31,10 @@ public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletIniti
         return new String[]{"/"};
     }
 
+    @Override
+    protected Filter[] getServletFilters() {
+        // фильтр сжатия берется из корневого контекста, чтобы читать настройки из application.properties
+        return new Filter[]{new DelegatingFilterProxy("compressionFilter"), new ResourceUrlEncodingFilter()};
+    }
+
 }
\ No newline at end of file
@@ -1,27 +1,63 @@
 package com.game.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.metrics.MethodMetricsPostProcessor;
+import com.game.metrics.MethodMetricsRegistry;
+import com.game.metrics.QueryCountInterceptor;
+import com.game.metrics.SqlMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.JstlView;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableWebMvc
-@ComponentScan("com.game")
+@ComponentScan("com.game.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final long RESOURCES_MAX_AGE_DAYS = 365;
+
+    private final ObjectMapper objectMapper;
+
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setSqlMetrics(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    /**
+     * Обработчик бинов действует только в своем контексте, поэтому контроллеры оборачиваются здесь
+     */
+    @Bean
+    public static MethodMetricsPostProcessor handlerMetricsPostProcessor(MethodMetricsRegistry registry) {
+        return new MethodMetricsPostProcessor(registry);
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -37,16 +73,32 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addViewController("/").setViewName("index");
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor(sqlMetrics)).addPathPatterns("/rest/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
+        // адреса файлов содержат хэш содержимого, поэтому ответы можно кэшировать надолго;
+        // заранее сжатые варианты *.gz создаются при сборке war
+        registry.addResourceHandler("/resources/**")
+                .addResourceLocations("/resources/")
+                .setCacheControl(CacheControl.maxAge(RESOURCES_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
     }
 
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        // JSON остается первым и выбирается, если клиент не просит двоичный формат
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                AppConfig.withFieldVisibility(Jackson2ObjectMapperBuilder.cbor().build())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                AppConfig.withFieldVisibility(Jackson2ObjectMapperBuilder.smile().build())));
+        // готовые части тела выгрузки, передаваемые через ResponseBodyEmitter
+        converters.add(new ByteArrayHttpMessageConverter());
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.game.controller;
+
+import com.game.cache.PlayerCache;
+import com.game.cache.QueryCache;
+import com.game.executor.RequestExecutor;
+import com.game.metrics.PoolMetrics;
+import com.game.metrics.SqlMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping(path = "/rest/admin")
+public class AdminRestController {
+
+    private final PoolMetrics poolMetrics;
+
+    private final PlayerCache playerCache;
+
+    private final QueryCache queryCache;
+
+    private final List<RequestExecutor> executors;
+
+    private final SqlMetrics sqlMetrics;
+
+    @Autowired
+    public AdminRestController(PoolMetrics poolMetrics, PlayerCache playerCache, QueryCache queryCache,
+                               List<RequestExecutor> executors, SqlMetrics sqlMetrics) {
+        this.poolMetrics = poolMetrics;
+        this.playerCache = playerCache;
+        this.queryCache = queryCache;
+        this.executors = executors;
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    /**
+     * Возвращает состояние пула соединений
+     *
+     * @return активные, свободные и ожидающие соединения, гистограмма времени получения соединения
+     */
+    @GetMapping(value = "/pool", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PoolMetrics.Snapshot getPoolMetrics() {
+        return poolMetrics.snapshot();
+    }
+
+    /**
+     * Возвращает статистику кэша игроков
+     *
+     * @return попадания, промахи, вытеснения и размер кэша
+     */
+    @GetMapping(value = "/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PlayerCache.Stats getCacheStats() {
+        return playerCache.stats();
+    }
+
+    /**
+     * Возвращает статистику кэша запросов
+     *
+     * @param limit сколько самых востребованных запросов вернуть
+     * @return попадания, промахи, занятая память и статистика по запросам
+     */
+    @GetMapping(value = "/query-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public QueryCache.Stats getQueryCacheStats(@RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+        return queryCache.stats(limit);
+    }
+
+    /**
+     * Возвращает состояние пулов асинхронного выполнения запросов
+     *
+     * @return занятые потоки, глубина очереди, отказы, тайм-ауты и гистограмма времени ожидания в очереди
+     */
+    @GetMapping(value = "/executors", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<RequestExecutor.Snapshot> getExecutorMetrics() {
+        return executors.stream().map(RequestExecutor::snapshot).collect(Collectors.toList());
+    }
+
+    /**
+     * Возвращает статистику SQL запросов
+     *
+     * @param limit сколько форм запросов с наибольшим суммарным временем вернуть
+     * @return время по формам запросов, число запросов на HTTP запрос по обработчикам
+     * и последние медленные запросы с параметрами
+     */
+    @GetMapping(value = "/sql", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SqlMetrics.Stats getSqlStats(@RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+        return sqlMetrics.stats(limit);
+    }
+}
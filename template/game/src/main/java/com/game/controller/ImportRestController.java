@@ -0,0 +1,96 @@
+package com.game.controller;
+
+import com.game.executor.RequestExecutor;
+import com.game.transfer.ImportJob;
+import com.game.transfer.PlayerFormat;
+import com.game.transfer.PlayerImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/rest/imports")
+public class ImportRestController {
+
+    private final PlayerImportService importService;
+
+    private final RequestExecutor exportExecutor;
+
+    @Autowired
+    public ImportRestController(PlayerImportService importService,
+                                @Qualifier("exportExecutor") RequestExecutor exportExecutor) {
+        this.importService = importService;
+        this.exportExecutor = exportExecutor;
+    }
+
+    /**
+     * Загружает игроков из тела запроса.
+     * Тело читается по мере поступления в пуле выгрузки, а не в потоке контейнера,
+     * ход загрузки доступен через <code>GET /rest/imports</code>
+     *
+     * @param format NDJSON или CSV с заголовком
+     * @param body поток записей
+     * @return Итог загрузки: количество прочитанных, созданных и отклоненных записей <p>
+     * При переполнении пула выгрузки возвращает HTTP статус <code>503</code>
+     */
+    @PostMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<ImportJob>> importPlayers(
+        @RequestParam(value = "format", defaultValue = "NDJSON", required = false) PlayerFormat format,
+        InputStream body
+    ) {
+        return exportExecutor.call(() -> ResponseEntity.ok(importService.importPlayers(format, body)));
+    }
+
+    /**
+     * Возвращает последние загрузки, в том числе выполняющиеся
+     *
+     * @return Список загрузок с ходом выполнения и скоростью
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ImportJob> getImports() {
+        return importService.getJobs();
+    }
+
+    /**
+     * Возвращает загрузку по id
+     *
+     * @param id
+     * @return Ход выполнения загрузки <p>
+     * При отсутствии загрузки возвращает HTTP статус <code>404</code>
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportJob getImport(@PathVariable Long id) {
+        return importService.getJob(id);
+    }
+
+    /**
+     * Выгружает отчет об отклоненных записях в формате NDJSON
+     *
+     * @param id
+     * @return Тело ответа, которое записывается в пуле выгрузки <p>
+     * При отсутствии загрузки возвращает HTTP статус <code>404</code>,
+     * при переполнении пула выгрузки - HTTP статус <code>503</code>
+     */
+    @GetMapping(value = "/{id}/rejects")
+    public ResponseEntity<ResponseBodyEmitter> getRejects(@PathVariable Long id) {
+        importService.getJob(id);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(PlayerFormat.NDJSON.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=rejects-" + id + ".ndjson")
+                .body(exportExecutor.stream(out -> importService.copyRejects(id, out)));
+    }
+}
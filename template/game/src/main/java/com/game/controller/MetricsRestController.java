@@ -0,0 +1,38 @@
+package com.game.controller;
+
+import com.game.metrics.MethodMetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Метрики для сбора Prometheus
+ */
+@RestController
+public class MetricsRestController {
+
+    public static final String PROMETHEUS_TEXT_VALUE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MethodMetricsRegistry registry;
+
+    @Autowired
+    public MetricsRestController(MethodMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Возвращает гистограммы задержек, ошибки по типам исключений и число выполняющихся вызовов
+     * для обработчиков запросов и методов сервиса игроков
+     *
+     * @param response ответ, в который пишутся метрики в текстовом формате Prometheus
+     */
+    @GetMapping(value = "/metrics")
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        // конвертеры сообщений настроены только на JSON и двоичные форматы, поэтому текст пишется напрямую
+        response.setContentType(PROMETHEUS_TEXT_VALUE);
+        registry.writePrometheus(response.getWriter());
+    }
+}
@@ -1,29 +1,87 @@
 package com.game.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.game.dto.PlayerBulkResult;
+import com.game.dto.PlayerChangeSet;
+import com.game.dto.PlayerCursor;
+import com.game.dto.PlayerFields;
+import com.game.dto.PlayerFilter;
+import com.game.dto.PlayerSearchResult;
 import com.game.entity.Player;
-import com.game.entity.Profession;
-import com.game.entity.Race;
+import com.game.exception.BadRequestException;
+import com.game.executor.RequestExecutor;
 import com.game.service.PlayerServiceImpl;
+import com.game.transfer.PlayerCodec;
+import com.game.transfer.PlayerFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Операции с игроками. Выборки, пакетные изменения и выгрузка выполняются асинхронно
+ * в отдельных пулах, чтобы не занимать потоки контейнера, на которых выполняются
+ * быстрые операции с одним игроком
+ */
 @RestController
 @RequestMapping(path = "/rest/players")
 public class PlayerRestController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Типы содержимого ответов с игроками в порядке предпочтения при равном весе в <code>Accept</code>
+     */
+    private static final List<MediaType> PLAYER_MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, MediaType.valueOf(APPLICATION_SMILE_VALUE)));
+
     private final PlayerServiceImpl playerService;
 
+    private final PlayerCodec playerCodec;
+
+    private final RequestExecutor readExecutor;
+
+    private final RequestExecutor writeExecutor;
+
+    private final RequestExecutor exportExecutor;
+
     @Autowired
-    public PlayerRestController(PlayerServiceImpl playerService) {
+    public PlayerRestController(PlayerServiceImpl playerService, PlayerCodec playerCodec,
+                                @Qualifier("readExecutor") RequestExecutor readExecutor,
+                                @Qualifier("writeExecutor") RequestExecutor writeExecutor,
+                                @Qualifier("exportExecutor") RequestExecutor exportExecutor) {
         this.playerService = playerService;
+        this.playerCodec = playerCodec;
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.exportExecutor = exportExecutor;
     }
 
     /**
@@ -33,116 +91,216 @@ public class PlayerRestController {
      * @return Объект игрока. <p>
      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
      */
-    @PostMapping(path = "/", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(path = "/",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     public ResponseEntity<Player> createPlayer(@RequestBody Player player){
         return ResponseEntity.ok(playerService.createPlayer(player));
     }
 
+    /**
+     * Создает игроков из массива JSON
+     *
+     * @param players Данные игроков
+     * @return id созданных игроков и причины отказа по каждому элементу массива <p>
+     * При пустом массиве или превышении допустимого размера возвращает HTTP статус <code>400</code> <p>
+     * При переполнении пула записи возвращает HTTP статус <code>503</code>
+     */
+    @PostMapping(path = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<PlayerBulkResult>> createPlayers(@RequestBody List<Player> players) {
+        return writeExecutor.call(() -> ResponseEntity.ok(playerService.createPlayers(players)));
+    }
+
+    /**
+     * Создает игроков из потока NDJSON, по одному объекту игрока в строке
+     *
+     * @param body Данные игроков
+     * @return id созданных игроков и причины отказа по каждой строке <p>
+     * При ошибке разбора JSON или превышении допустимого числа строк возвращает HTTP статус <code>400</code>,
+     * остаток потока после лишней строки не читается <p>
+     * При переполнении пула записи возвращает HTTP статус <code>503</code>
+     */
+    @PostMapping(path = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = APPLICATION_NDJSON_VALUE)
+    public DeferredResult<ResponseEntity<PlayerBulkResult>> createPlayersFromStream(InputStream body) {
+        return writeExecutor.call(() -> {
+            List<Player> players = new ArrayList<>();
+            try (MappingIterator<Player> iterator = playerCodec.reader(PlayerFormat.NDJSON, body)) {
+                while (iterator.hasNextValue()) {
+                    if (players.size() == playerService.getMaxBulkSize())
+                        throw new BadRequestException("Invalid players count");
+                    players.add(iterator.nextValue());
+                }
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("Invalid NDJSON");
+            }
+            return ResponseEntity.ok(playerService.createPlayers(players));
+        });
+    }
+
     /**
      * Возвращает игрока по id
      *
      * @param id игрока
-     * @return Объект игрока. <p>
+     * @param fields выбранные поля через запятую, например <code>id,name,level</code>
+     * @param accept заголовок <code>Accept</code>, формат ответа входит в <code>ETag</code>
+     * @return Объект игрока с версией, форматом и полями в заголовке <code>ETag</code>. <p>
+     *      * При совпадении заголовка <code>If-None-Match</code> возвращает пустой ответ с HTTP статусом <code>304</code> <p>
      *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
      */
-    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseBody
-    public ResponseEntity<Player> getPlayerById(@PathVariable Long id) {
-        return  ResponseEntity.ok(playerService.getPlayerById(id));
+    public ResponseEntity<?> getPlayerById(@PathVariable Long id,
+                                           @RequestParam(value = "fields", required = false) String fields,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // при совпадении If-None-Match ответ 304 отправляется без тела
+        PlayerFields playerFields = PlayerFields.parse(fields);
+        Player player = playerService.getPlayerById(id);
+        return ResponseEntity.ok().eTag(eTag(player.getVersion(), accept, playerFields)).varyBy(HttpHeaders.ACCEPT)
+                .body(playerFields == null ? player : playerFields.project(player));
     }
 
     /**
      * Возвращает список всех игроков
      *
-     * @param name
-     * @param title
-     * @param race
-     * @param profession
-     * @param after
-     * @param before
-     * @param banned
-     * @param minExperience
-     * @param maxExperience
-     * @param minLevel
-     * @param maxLevel
+     * @param filter фильтры: name, title, race, profession, after, before, banned,
+     *               minExperience, maxExperience, minLevel, maxLevel
      * @param order
      * @param pageNumber
      * @param pageSize
-     * @return Список объектов игроков <p>
-     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
+     * @param cursor позиция в списке из заголовка <code>X-Next-Cursor</code> предыдущего ответа.
+     *               При наличии параметра (в том числе пустого) <code>pageNumber</code> не учитывается,
+     *               а страница выбирается по ключу сортировки
+     * @param fields выбранные поля через запятую, например <code>id,name,level</code>.
+     *               Из базы данных читаются только эти столбцы
+     * @param request
+     * @return Список объектов игроков с меткой состояния таблицы, форматом и полями в заголовке <code>ETag</code> <p>
+     *      * При совпадении заголовка <code>If-None-Match</code> возвращает пустой ответ с HTTP статусом <code>304</code> <p>
+     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При переполнении пула чтения возвращает HTTP статус <code>503</code>
      */
-    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseBody
-    public List<Player> getAllPlayers(
-        @RequestParam(value = "name", required = false) String name,
-        @RequestParam(value = "title",  required = false) String title,
-        @RequestParam(value = "race", required = false) Race race,
-        @RequestParam(value = "profession", required = false) Profession profession,
-        @RequestParam(value = "after", required = false) Long after,
-        @RequestParam(value = "before", required = false) Long before,
-        @RequestParam(value = "banned", required = false) Boolean banned,
-        @RequestParam(value = "minExperience", required = false) Integer minExperience,
-        @RequestParam(value = "maxExperience", required = false) Integer maxExperience,
-        @RequestParam(value = "minLevel", required = false) Integer minLevel,
-        @RequestParam(value = "maxLevel", required = false) Integer maxLevel,
+    public DeferredResult<ResponseEntity<List<?>>> getAllPlayers(
+        PlayerFilter filter,
         @RequestParam(value = "order", defaultValue = "ID", required = false) PlayerOrder order,
         @RequestParam(value = "pageNumber", defaultValue = "0") Integer pageNumber,
-        @RequestParam(value = "pageSize", defaultValue = "3") Integer pageSize
+        @RequestParam(value = "pageSize", defaultValue = "3") Integer pageSize,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "fields", required = false) String fields,
+        WebRequest request
     ) {
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
+        PlayerFields playerFields = PlayerFields.parse(fields);
+
+        // метка берется до чтения списка, чтобы изменение во время чтения не осталось незамеченным
+        String eTag = eTag(playerService.getPlayersTag(), request.getHeader(HttpHeaders.ACCEPT), playerFields);
+        if (request.checkNotModified(eTag))
+            return null;
+
+        if (cursor == null) {
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
+            return readExecutor.call(() -> ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT)
+                    .body(playerFields == null
+                            ? playerService.getAllPlayers(filter, pageable).getContent()
+                            : playerService.getAllPlayers(filter, pageable, playerFields).getContent()));
+        }
+
+        PlayerCursor after = cursor.isEmpty() ? null : PlayerCursor.decode(cursor);
+        return readExecutor.call(() -> {
+            Slice<Player> players = playerService.getAllPlayersAfter(filter, order.getFieldName(), after, pageSize);
 
-        return playerService.getAllPlayers(
-            Specification.where(playerService.findAllByNameLike(name))
-                .and(playerService.findAllByTitleLike(title))
-                .and(playerService.findAllByRaceLike(race))
-                .and(playerService.findAllByProfessionLike(profession))
-                .and(playerService.findAllByBirtdayLike(after, before))
-                .and(playerService.findAllByBannedLike(banned))
-                .and(playerService.findAllByExperienceLike(minExperience, maxExperience))
-                .and(playerService.findAllByLevelLike(minLevel, maxLevel)), pageable).getContent();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+            if (players.hasNext()) {
+                Player last = players.getContent().get(players.getNumberOfElements() - 1);
+                response.header(NEXT_CURSOR_HEADER, PlayerCursor.after(order.getFieldName(), last).encode());
+            }
+            // позиция строится по полям сортировки, поэтому при курсоре поля выбираются из загруженных игроков
+            return response.body(playerFields == null
+                    ? players.getContent()
+                    : players.getContent().stream().map(playerFields::project).collect(Collectors.toList()));
+        });
     }
 
     /**
      * Возвращает количество всех игроков согласно фильтра
      *
-     * @param name
-     * @param title
-     * @param race
-     * @param profession
-     * @param after
-     * @param before
-     * @param banned
-     * @param minExperience
-     * @param maxExperience
-     * @param minLevel
-     * @param maxLevel
+     * @param filter фильтры: name, title, race, profession, after, before, banned,
+     *               minExperience, maxExperience, minLevel, maxLevel
      * @return Количество игроков отвечающих фильтрам <p>
-     *       * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
+     *       * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *       * При переполнении пула чтения возвращает HTTP статус <code>503</code>
+     */
+    @GetMapping(value = "/count",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @ResponseBody
+    public DeferredResult<Long> getPlayersCount(PlayerFilter filter) {
+        return readExecutor.call(() -> playerService.getPlayersCount(filter));
+    }
+
+    /**
+     * Выгружает всех игроков согласно фильтра.
+     * Игроки записываются в ответ по мере чтения из базы данных
+     *
+     * @param filter фильтры: name, title, race, profession, after, before, banned,
+     *               minExperience, maxExperience, minLevel, maxLevel
+     * @param order
+     * @param format NDJSON или CSV
+     * @param fields выбранные поля через запятую, например <code>id,name,level</code>.
+     *               Из базы данных читаются только эти столбцы, в CSV выводятся только они
+     * @return Тело ответа, которое записывается в пуле выгрузки по мере чтения из базы данных <p>
+     * При переполнении пула выгрузки возвращает HTTP статус <code>503</code>
+     */
+    @GetMapping(value = "/export")
+    public ResponseEntity<ResponseBodyEmitter> exportPlayers(
+        PlayerFilter filter,
+        @RequestParam(value = "order", defaultValue = "ID", required = false) PlayerOrder order,
+        @RequestParam(value = "format", defaultValue = "NDJSON", required = false) PlayerFormat format,
+        @RequestParam(value = "fields", required = false) String fields
+    ) {
+        PlayerFields playerFields = PlayerFields.parse(fields);
+        ResponseBodyEmitter body = exportExecutor.stream(out -> {
+            if (playerFields != null) {
+                try (SequenceWriter writer = playerCodec.writer(format, playerFields, out)) {
+                    playerService.exportPlayers(filter, Sort.by(order.getFieldName()), playerFields,
+                            row -> write(writer, row));
+                }
+            } else {
+                try (SequenceWriter writer = playerCodec.writer(format, out)) {
+                    playerService.exportPlayers(filter, Sort.by(order.getFieldName()), player -> write(writer, player));
+                }
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(format.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=players." + format.getExtension())
+                .body(body);
+    }
+
+    /**
+     * Возвращает страницу игроков и количество всех игроков согласно фильтра
+     *
+     * @param filter фильтры: name, title, race, profession, after, before, banned,
+     *               minExperience, maxExperience, minLevel, maxLevel
+     * @param order
+     * @param pageNumber
+     * @param pageSize
+     * @return Список объектов игроков и их общее количество <p>
+     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При переполнении пула чтения возвращает HTTP статус <code>503</code>
      */
-    @GetMapping(value = "/count", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseBody
-    public Long getPlayersCount(
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "title",  required = false) String title,
-            @RequestParam(value = "race", required = false) Race race,
-            @RequestParam(value = "profession", required = false) Profession profession,
-            @RequestParam(value = "after", required = false) Long after,
-            @RequestParam(value = "before", required = false) Long before,
-            @RequestParam(value = "banned", required = false) Boolean banned,
-            @RequestParam(value = "minExperience", required = false) Integer minExperience,
-            @RequestParam(value = "maxExperience", required = false) Integer maxExperience,
-            @RequestParam(value = "minLevel", required = false) Integer minLevel,
-            @RequestParam(value = "maxLevel", required = false) Integer maxLevel
+    public DeferredResult<PlayerSearchResult> searchPlayers(
+        PlayerFilter filter,
+        @RequestParam(value = "order", defaultValue = "ID", required = false) PlayerOrder order,
+        @RequestParam(value = "pageNumber", defaultValue = "0") Integer pageNumber,
+        @RequestParam(value = "pageSize", defaultValue = "3") Integer pageSize
     ) {
-        return playerService.getPlayersCount(
-            Specification.where(playerService.findAllByNameLike(name))
-                .and(playerService.findAllByTitleLike(title))
-                .and(playerService.findAllByRaceLike(race))
-                .and(playerService.findAllByProfessionLike(profession))
-                .and(playerService.findAllByBirtdayLike(after, before))
-                .and(playerService.findAllByBannedLike(banned))
-                .and(playerService.findAllByExperienceLike(minExperience, maxExperience))
-                .and(playerService.findAllByLevelLike(minLevel, maxLevel)));
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
+
+        return readExecutor.call(() -> playerService.searchPlayers(filter, pageable));
     }
 
     /**
@@ -150,27 +308,161 @@ public class PlayerRestController {
      *
      * @param id
      * @param player
+     * @param ifMatch версия игрока из заголовка <code>ETag</code> предыдущего ответа
      * @return Объект игрока <p>
-     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
+     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При изменении игрока другим запросом возвращает HTTP статус <code>409</code>
      */
-    @PostMapping(value = "{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(value = "{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
 //    @PostMapping ("/{id}")
     @ResponseBody
-    public ResponseEntity<Player> updatePlayer(@PathVariable Long id, @RequestBody @Validated Player player) {
-        return ResponseEntity.ok(playerService.updatePlayer(id, player));
+    public ResponseEntity<Player> updatePlayer(@PathVariable Long id, @RequestBody @Validated Player player,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Player updated = playerService.updatePlayer(id, player, parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(updated.getVersion(), accept, null)).varyBy(HttpHeaders.ACCEPT)
+                .body(updated);
+    }
+
+    /**
+     * Изменяет только переданные поля игрока одним запросом к базе данных
+     *
+     * @param id
+     * @param player переданные поля игрока
+     * @param ifMatch версия игрока из заголовка <code>ETag</code> предыдущего ответа
+     * @return Объект игрока с новой версией в заголовке <code>ETag</code> <p>
+     *      * При изменении игрока другим запросом возвращает HTTP статус <code>409</code>
+     */
+    @PatchMapping(value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @ResponseBody
+    public ResponseEntity<Player> patchPlayer(@PathVariable Long id, @RequestBody Player player,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Player patched = playerService.patchPlayer(id, player, parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(patched.getVersion(), accept, null)).varyBy(HttpHeaders.ACCEPT)
+                .body(patched);
+    }
+
+    /**
+     * Изменяет всех игроков согласно фильтра одним запросом
+     *
+     * @param filter фильтры: name, title, race, profession, after, before, banned,
+     *               minExperience, maxExperience, minLevel, maxLevel
+     * @param changes изменения: banned, experienceDelta, title
+     * @return Количество измененных игроков <p>
+     *      * При отсутствии изменений возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При переполнении пула записи возвращает HTTP статус <code>503</code>
+     */
+    @PostMapping(value = "/bulk-update", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public DeferredResult<Integer> updatePlayers(PlayerFilter filter, @RequestBody PlayerChangeSet changes) {
+        return writeExecutor.call(() -> playerService.updatePlayers(filter, changes));
     }
 
     /**
      * Удаляет игрока
      *
      * @param id
+     * @param ifMatch версия игрока из заголовка <code>ETag</code> предыдущего ответа
      * @return Объект игрока <p>
-     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code>
+     *      * При отсутствии входных данных возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При изменении игрока другим запросом возвращает HTTP статус <code>409</code>
      */
     //удаление игрока по id
-    @DeleteMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @DeleteMapping(value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @ResponseBody
+    public ResponseEntity<Player> deletePlayer(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ResponseEntity.ok(playerService.deletePlayer(id, parseVersion(ifMatch)));
+    }
+
+    /**
+     * Удаляет игроков по списку id одним запросом
+     *
+     * @param ids id игроков
+     * @return Количество удаленных игроков <p>
+     *      * При пустом списке или неправильном id возвращает пустой ответ с HTTP статусом <code>400</code> <p>
+     *      * При переполнении пула записи возвращает HTTP статус <code>503</code>
+     */
+    @PostMapping(value = "/bulk-delete", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public ResponseEntity<Player> deletePlayer(@PathVariable Long id) {
-        return ResponseEntity.ok(playerService.deletePlayer(id));
+    public DeferredResult<Integer> deletePlayers(@RequestBody List<Long> ids) {
+        return writeExecutor.call(() -> playerService.deletePlayers(ids));
+    }
+
+    private static void write(SequenceWriter writer, Object value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Составляет метку представления для заголовка <code>ETag</code>: <code>"состояние-формат[-поля]"</code>.
+     * Представления в разных форматах и с разными полями получают разные метки,
+     * поэтому ответ 304 не подтверждает закэшированное клиентом другое представление
+     *
+     * @param state версия игрока или метка состояния таблицы
+     * @param accept заголовок <code>Accept</code>
+     * @param fields выбранные поля либо <code>null</code>
+     * @return метка в кавычках
+     */
+    private static String eTag(Object state, String accept, PlayerFields fields) {
+        StringBuilder tag = new StringBuilder("\"").append(state).append('-').append(mediaType(accept).getSubtype());
+        if (fields != null)
+            tag.append('-').append(String.join(".", fields.getNames()));
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Выбирает тип содержимого ответа с игроками так же, как согласование содержимого Spring MVC
+     *
+     * @param accept заголовок <code>Accept</code>
+     * @return тип содержимого, по умолчанию JSON
+     */
+    private static MediaType mediaType(String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = accept == null ? Collections.emptyList() : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted)
+            for (MediaType producible : PLAYER_MEDIA_TYPES)
+                if (type.getQualityValue() > 0 && type.isCompatibleWith(producible))
+                    return producible;
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Разбирает версию игрока из заголовка <code>If-Match</code>.
+     * Метка состоит из версии, формата и полей, для проверки нужна только версия
+     *
+     * @param ifMatch значение заголовка
+     * @return версия либо <code>null</code>, если заголовок не передан или равен <code>*</code>
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*"))
+            return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/"))
+            tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\""))
+            tag = tag.substring(1, tag.length() - 1);
+        if (tag.indexOf('-') >= 0)
+            tag = tag.substring(0, tag.indexOf('-'));
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match header");
+        }
     }
 }
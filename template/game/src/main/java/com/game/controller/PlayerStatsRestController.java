@@ -0,0 +1,31 @@
+package com.game.controller;
+
+import com.game.stats.PlayerStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/rest/players")
+public class PlayerStatsRestController {
+
+    private final PlayerStats playerStats;
+
+    @Autowired
+    public PlayerStatsRestController(PlayerStats playerStats) {
+        this.playerStats = playerStats;
+    }
+
+    /**
+     * Возвращает сводную статистику игроков из счетчиков в памяти, без обращения к базе данных
+     *
+     * @return количество и суммарный опыт по расе, профессии и признаку бана, распределение по уровням
+     * и время последней сверки с базой данных
+     */
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PlayerStats.Stats getStats() {
+        return playerStats.snapshot();
+    }
+}
@@ -0,0 +1,71 @@
+package com.game.dto;
+
+import java.util.List;
+
+/**
+ * Результат пакетного создания игроков по каждому элементу запроса
+ */
+public class PlayerBulkResult {
+
+    private final int created;
+
+    private final int rejected;
+
+    private final List<Item> items;
+
+    public PlayerBulkResult(List<Item> items) {
+        this.items = items;
+        this.created = (int) items.stream().filter(item -> item.getId() != null).count();
+        this.rejected = items.size() - created;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * Результат по одному игроку: id созданного игрока либо причина отказа
+     */
+    public static class Item {
+
+        private final int index;
+
+        private final Long id;
+
+        private final String error;
+
+        private Item(int index, Long id, String error) {
+            this.index = index;
+            this.id = id;
+            this.error = error;
+        }
+
+        public static Item created(int index, Long id) {
+            return new Item(index, id, null);
+        }
+
+        public static Item rejected(int index, String error) {
+            return new Item(index, null, error);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
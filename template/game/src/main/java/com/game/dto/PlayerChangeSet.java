@@ -0,0 +1,42 @@
+package com.game.dto;
+
+/**
+ * Изменения, применяемые ко всем игрокам по фильтру
+ */
+public class PlayerChangeSet {
+
+    private Boolean banned;
+
+    private Integer experienceDelta;
+
+    private String title;
+
+    //геттеры и сеттеры
+    public Boolean getBanned() {
+        return banned;
+    }
+
+    public void setBanned(Boolean banned) {
+        this.banned = banned;
+    }
+
+    public Integer getExperienceDelta() {
+        return experienceDelta;
+    }
+
+    public void setExperienceDelta(Integer experienceDelta) {
+        this.experienceDelta = experienceDelta;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public boolean isEmpty() {
+        return banned == null && experienceDelta == null && title == null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.game.dto;
+
+import com.game.entity.Player;
+import com.game.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Позиция в списке игроков для постраничного вывода по ключу.
+ * Хранит значение поля сортировки и id последнего выданного игрока
+ */
+public class PlayerCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String field;
+
+    private final Object key;
+
+    private final long id;
+
+    private PlayerCursor(String field, Object key, long id) {
+        this.field = field;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Создает позицию после указанного игрока
+     *
+     * @param field поле сортировки
+     * @param player последний выданный игрок
+     * @return позиция в списке
+     */
+    public static PlayerCursor after(String field, Player player) {
+        return new PlayerCursor(field, keyOf(field, player), player.getId());
+    }
+
+    /**
+     * Разбирает непрозрачный токен позиции
+     *
+     * @param token токен, полученный из {@link #encode()}
+     * @return позиция в списке
+     * @throws BadRequestException при не корректном токене
+     */
+    public static PlayerCursor decode(String token) throws BadRequestException {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = value.indexOf(SEPARATOR);
+            int last = value.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last)
+                throw new BadRequestException("Invalid cursor");
+
+            String field = value.substring(0, first);
+            String key = value.substring(first + 1, last);
+            long id = Long.parseLong(value.substring(last + 1));
+            return new PlayerCursor(field, parseKey(field, key), id);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Кодирует позицию в непрозрачный токен
+     *
+     * @return токен позиции
+     */
+    public String encode() {
+        String value = field + SEPARATOR + formatKey(key) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return значение поля сортировки последнего игрока либо <code>null</code>
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    private static Object keyOf(String field, Player player) {
+        switch (field) {
+            case "id":
+                return player.getId();
+            case "name":
+                return player.getName();
+            case "experience":
+                return player.getExperience();
+            case "birthday":
+                return player.getBirthday() == null ? null : new Date(player.getBirthday().getTime());
+            case "level":
+                return player.getLevel();
+            default:
+                throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static String formatKey(Object key) {
+        if (key == null)
+            return "";
+        if (key instanceof Date)
+            return "=" + ((Date) key).getTime();
+        return "=" + key;
+    }
+
+    private static Object parseKey(String field, String key) {
+        if (key.isEmpty())
+            return null;
+        if (key.charAt(0) != '=')
+            throw new BadRequestException("Invalid cursor");
+
+        String value = key.substring(1);
+        switch (field) {
+            case "id":
+                return Long.valueOf(value);
+            case "name":
+                return value;
+            case "experience":
+            case "level":
+                return Integer.valueOf(value);
+            case "birthday":
+                return new Date(Long.parseLong(value));
+            default:
+                throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.dto;
+
+import com.game.entity.Player;
+import com.game.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Набор полей игрока из параметра <code>fields=id,name,level</code>.
+ * Определяет столбцы, выбираемые из базы данных, и свойства, записываемые в ответ
+ */
+public final class PlayerFields {
+
+    private static final List<String> ALL = Collections.unmodifiableList(Arrays.asList(
+            "id", "name", "title", "race", "profession", "birthday", "banned", "experience", "level", "untilNextLevel"));
+
+    private final List<String> names;
+
+    private PlayerFields(List<String> names) {
+        this.names = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Разбирает список полей через запятую
+     *
+     * @param value значение параметра
+     * @return набор полей либо <code>null</code>, если параметр не задан и нужны все поля
+     * @throws BadRequestException при пустом списке или неизвестном поле
+     */
+    public static PlayerFields parse(String value) throws BadRequestException {
+        if (value == null)
+            return null;
+
+        List<String> names = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String name = part.trim();
+            if (!ALL.contains(name))
+                throw new BadRequestException("Invalid field: " + name);
+            if (!names.contains(name))
+                names.add(name);
+        }
+        return new PlayerFields(names);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Составляет строку ответа из значений столбцов в порядке {@link #getNames()}
+     *
+     * @param row значения столбцов
+     * @return свойства игрока в порядке полей
+     */
+    public Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++)
+            map.put(names.get(i), row[i]);
+        return map;
+    }
+
+    /**
+     * Оставляет у уже загруженного игрока только выбранные поля
+     *
+     * @param player игрок
+     * @return свойства игрока в порядке полей
+     */
+    public Map<String, Object> project(Player player) {
+        Map<String, Object> map = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names)
+            map.put(name, valueOf(player, name));
+        return map;
+    }
+
+    private static Object valueOf(Player player, String name) {
+        switch (name) {
+            case "id":
+                return player.getId();
+            case "name":
+                return player.getName();
+            case "title":
+                return player.getTitle();
+            case "race":
+                return player.getRace();
+            case "profession":
+                return player.getProfession();
+            case "birthday":
+                return player.getBirthday();
+            case "banned":
+                return player.getBanned();
+            case "experience":
+                return player.getExperience();
+            case "level":
+                return player.getLevel();
+            default:
+                return player.getUntilNextLevel();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.game.dto;
+
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+import java.util.Objects;
+
+/**
+ * Параметры фильтрации списка игроков
+ */
+public class PlayerFilter {
+
+    private String name;
+
+    private String title;
+
+    private Race race;
+
+    private Profession profession;
+
+    private Long after;
+
+    private Long before;
+
+    private Boolean banned;
+
+    private Integer minExperience;
+
+    private Integer maxExperience;
+
+    private Integer minLevel;
+
+    private Integer maxLevel;
+
+    //геттеры и сеттеры
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Race getRace() {
+        return race;
+    }
+
+    public void setRace(Race race) {
+        this.race = race;
+    }
+
+    public Profession getProfession() {
+        return profession;
+    }
+
+    public void setProfession(Profession profession) {
+        this.profession = profession;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public void setAfter(Long after) {
+        this.after = after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public void setBefore(Long before) {
+        this.before = before;
+    }
+
+    public Boolean getBanned() {
+        return banned;
+    }
+
+    public void setBanned(Boolean banned) {
+        this.banned = banned;
+    }
+
+    public Integer getMinExperience() {
+        return minExperience;
+    }
+
+    public void setMinExperience(Integer minExperience) {
+        this.minExperience = minExperience;
+    }
+
+    public Integer getMaxExperience() {
+        return maxExperience;
+    }
+
+    public void setMaxExperience(Integer maxExperience) {
+        this.maxExperience = maxExperience;
+    }
+
+    public Integer getMinLevel() {
+        return minLevel;
+    }
+
+    public void setMinLevel(Integer minLevel) {
+        this.minLevel = minLevel;
+    }
+
+    public Integer getMaxLevel() {
+        return maxLevel;
+    }
+
+    public void setMaxLevel(Integer maxLevel) {
+        this.maxLevel = maxLevel;
+    }
+
+    //toString, equals, hashCode
+    @Override
+    public String toString() {
+        return "PlayerFilter{" +
+                "name='" + name + '\'' +
+                ", title='" + title + '\'' +
+                ", race=" + race +
+                ", profession=" + profession +
+                ", after=" + after +
+                ", before=" + before +
+                ", banned=" + banned +
+                ", minExperience=" + minExperience +
+                ", maxExperience=" + maxExperience +
+                ", minLevel=" + minLevel +
+                ", maxLevel=" + maxLevel +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PlayerFilter that = (PlayerFilter) o;
+        return Objects.equals(name, that.name) &&
+                Objects.equals(title, that.title) &&
+                race == that.race &&
+                profession == that.profession &&
+                Objects.equals(after, that.after) &&
+                Objects.equals(before, that.before) &&
+                Objects.equals(banned, that.banned) &&
+                Objects.equals(minExperience, that.minExperience) &&
+                Objects.equals(maxExperience, that.maxExperience) &&
+                Objects.equals(minLevel, that.minLevel) &&
+                Objects.equals(maxLevel, that.maxLevel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, title, race, profession, after, before, banned,
+                minExperience, maxExperience, minLevel, maxLevel);
+    }
+}
@@ -0,0 +1,28 @@
+package com.game.dto;
+
+import com.game.entity.Player;
+
+import java.util.List;
+
+/**
+ * Страница игроков вместе с общим количеством игроков по фильтру
+ */
+public class PlayerSearchResult {
+
+    private final List<Player> players;
+
+    private final long count;
+
+    public PlayerSearchResult(List<Player> players, long count) {
+        this.players = players;
+        this.count = count;
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
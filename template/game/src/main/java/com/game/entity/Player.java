@@ -1,6 +1,8 @@
 package com.game.entity;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.util.Date;
 import java.util.Objects;
@@ -31,6 +33,13 @@ public class Player {
 
     private Boolean banned;
 
+    /**
+     * Версия строки для оптимистической блокировки, передается клиентам в заголовке ETag
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
     //конструкторы
     protected Player() {
     }
@@ -55,6 +64,20 @@ public class Player {
         this.banned = banned;
     }
 
+    public Player(Player player) {
+        this.id = player.id;
+        this.name = player.name;
+        this.title = player.title;
+        this.race = player.race;
+        this.profession = player.profession;
+        this.experience = player.experience;
+        this.level = player.level;
+        this.untilNextLevel = player.untilNextLevel;
+        this.birthday = player.birthday;
+        this.banned = player.banned;
+        this.version = player.version;
+    }
+
     //геттеры и сеттеры
     public Long getId() {
         return id;
@@ -136,6 +159,14 @@ public class Player {
         this.banned = banned;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     //toString, equals, hashCode
     @Override
     public String toString() {
@@ -0,0 +1,18 @@
+package com.game.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Игрок изменен другим запросом после того, как клиент получил его версию
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException() {
+    }
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
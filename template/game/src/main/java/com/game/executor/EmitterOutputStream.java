@@ -0,0 +1,61 @@
+package com.game.executor;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Поток, передающий записанные байты в {@link ResponseBodyEmitter} частями по {@link #CHUNK_SIZE} байт.
+ * Сброс после каждого значения, который делают писатели Jackson, не отправляет неполную часть.
+ * Части отправляются как {@code application/octet-stream}, чтобы их записывал конвертер массива байт,
+ * а не Jackson; тип содержимого ответа задаёт обработчик
+ */
+class EmitterOutputStream extends OutputStream {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ResponseBodyEmitter emitter;
+
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+
+    private int size;
+
+    EmitterOutputStream(ResponseBodyEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (size == buffer.length)
+            send();
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (size == buffer.length)
+                send();
+            int count = Math.min(length, buffer.length - size);
+            System.arraycopy(bytes, offset, buffer, size, count);
+            size += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        send();
+    }
+
+    private void send() throws IOException {
+        if (size == 0)
+            return;
+        emitter.send(Arrays.copyOf(buffer, size), MediaType.APPLICATION_OCTET_STREAM);
+        size = 0;
+    }
+}
@@ -0,0 +1,358 @@
+package com.game.executor;
+
+import com.game.exception.ServiceUnavailableException;
+import com.game.metrics.LatencyHistogram;
+import com.game.metrics.QueryCounter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Именованный пул для асинхронного выполнения запросов с ограниченной очередью.
+ * Запрос, не поместившийся в очередь или не начавший выполняться за отведенное время,
+ * завершается HTTP статусом <code>503</code>. Начавшийся запрос не прерывается. <p>
+ * На виртуальных потоках каждая задача сразу получает свой поток, принимается не больше
+ * <code>poolSize + queueCapacity</code> задач, а выполняется одновременно не больше <code>poolSize</code>.
+ * Остальные ждут разрешения на своем потоке столько же, сколько ждали бы в очереди, и тоже получают <code>503</code>
+ */
+public class RequestExecutor {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int EXPIRED = 2;
+
+    private final String name;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final boolean virtualThreads;
+    private final ExecutorService pool;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Semaphore permits;
+    private final Semaphore running;
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param name имя пула, используется в именах потоков и метриках
+     * @param poolSize число потоков
+     * @param queueCapacity число запросов, ожидающих свободного потока
+     * @param timeoutMillis наибольшее время ожидания в очереди
+     */
+    public RequestExecutor(String name, int poolSize, int queueCapacity, long timeoutMillis) {
+        this(name, poolSize, queueCapacity, timeoutMillis, false);
+    }
+
+    /**
+     * @param name имя пула, используется в именах потоков и метриках
+     * @param poolSize число потоков
+     * @param queueCapacity число запросов, ожидающих свободного потока
+     * @param timeoutMillis наибольшее время ожидания в очереди
+     * @param virtualThreads выполнять задачи на виртуальных потоках, если JVM их поддерживает
+     */
+    public RequestExecutor(String name, int poolSize, int queueCapacity, long timeoutMillis,
+                           boolean virtualThreads) {
+        this.name = name;
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.virtualThreads = virtualThreads && VirtualThreads.isSupported();
+
+        if (this.virtualThreads) {
+            this.pool = VirtualThreads.newThreadPerTaskExecutor("player-" + name + "-");
+            this.permits = new Semaphore(poolSize + queueCapacity);
+            this.running = new Semaphore(poolSize);
+            this.timer = null;
+            return;
+        }
+
+        ThreadFactory threadFactory = new CustomizableThreadFactory("player-" + name + "-");
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.permits = null;
+        this.running = null;
+
+        CustomizableThreadFactory timerFactory = new CustomizableThreadFactory("player-" + name + "-timeout-");
+        timerFactory.setDaemon(true);
+        this.timer = new ScheduledThreadPoolExecutor(1, timerFactory);
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Ставит задачу в очередь пула
+     *
+     * @param task задача, результат которой станет ответом
+     * @return результат, который будет установлен по завершении задачи
+     * @throws ServiceUnavailableException если очередь заполнена
+     */
+    public <T> DeferredResult<T> call(Callable<T> task) {
+        // время ограничивает только ожидание в очереди, поэтому тайм-аут самого запроса отключен
+        DeferredResult<T> result = new DeferredResult<>(-1L);
+        submit(new Job<>(task, result::setResult, result::setErrorResult));
+        return result;
+    }
+
+    /**
+     * Ставит в очередь пула запись тела ответа. Поток пула не пишет в ответ контейнера напрямую:
+     * тело передается частями через {@link ResponseBodyEmitter}, асинхронной обработкой управляет Spring MVC
+     *
+     * @param body запись тела ответа
+     * @return источник тела ответа, завершается по окончании записи
+     * @throws ServiceUnavailableException если очередь заполнена
+     */
+    public ResponseBodyEmitter stream(StreamingResponseBody body) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(-1L);
+        submit(new Job<Void>(() -> {
+            try (OutputStream out = new EmitterOutputStream(emitter)) {
+                body.writeTo(out);
+            }
+            return null;
+        }, ignored -> emitter.complete(), emitter::completeWithError));
+        return emitter;
+    }
+
+    private void submit(Job<?> job) {
+        if (permits != null && !permits.tryAcquire())
+            throw overloaded();
+        try {
+            pool.execute(job);
+        } catch (RejectedExecutionException e) {
+            if (permits != null)
+                permits.release();
+            throw overloaded();
+        }
+        if (timer != null)
+            job.deadline = timer.schedule(job::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Возвращает текущее состояние пула
+     *
+     * @return срез метрик пула
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(name,
+                virtualThreads,
+                poolSize,
+                active.get(),
+                pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getQueue().size()
+                        : Math.max(0, poolSize + queueCapacity - permits.availablePermits() - active.get()),
+                queueCapacity,
+                completed.sum(),
+                rejected.sum(),
+                timeouts.sum(),
+                waitTime.snapshot(),
+                runTime.snapshot());
+    }
+
+    public void shutdown() {
+        if (timer != null)
+            timer.shutdownNow();
+        pool.shutdown();
+    }
+
+    private ServiceUnavailableException overloaded() {
+        rejected.increment();
+        return new ServiceUnavailableException("Executor " + name + " is overloaded");
+    }
+
+    /**
+     * Проверяет, что задача не дождалась соединения с базой данных
+     */
+    private static boolean isConnectionTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+            if (cause instanceof SQLTransientConnectionException)
+                return true;
+        return false;
+    }
+
+    /**
+     * Задача в очереди. Выполняется либо снимается по тайм-ауту, но не то и другое вместе
+     */
+    private class Job<T> implements Runnable {
+
+        private final Callable<T> task;
+        private final Consumer<T> onResult;
+        private final Consumer<Throwable> onError;
+        private final long queuedAt = System.nanoTime();
+        private final QueryCounter queryCounter = QueryCounter.current();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile ScheduledFuture<?> deadline;
+
+        private Job(Callable<T> task, Consumer<T> onResult, Consumer<Throwable> onError) {
+            this.task = task;
+            this.onResult = onResult;
+            this.onError = onError;
+        }
+
+        @Override
+        public void run() {
+            if (running != null && !awaitTurn())
+                return;
+            if (!state.compareAndSet(QUEUED, RUNNING))
+                return;
+
+            long startedAt = System.nanoTime();
+            waitTime.record(startedAt - queuedAt);
+            ScheduledFuture<?> scheduled = deadline;
+            if (scheduled != null)
+                scheduled.cancel(false);
+
+            active.incrementAndGet();
+            QueryCounter previous = QueryCounter.attach(queryCounter);
+            try {
+                onResult.accept(task.call());
+            } catch (Throwable e) {
+                if (isConnectionTimeout(e)) {
+                    timeouts.increment();
+                    e = new ServiceUnavailableException("Executor " + name + " timed out waiting for a connection");
+                }
+                onError.accept(e);
+            } finally {
+                QueryCounter.attach(previous);
+                active.decrementAndGet();
+                completed.increment();
+                runTime.record(System.nanoTime() - startedAt);
+                if (running != null)
+                    running.release();
+                if (permits != null)
+                    permits.release();
+            }
+        }
+
+        /**
+         * Ожидание очереди на виртуальном потоке: задача ждет разрешения не дольше тайм-аута очереди
+         */
+        private boolean awaitTurn() {
+            long remaining = timeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt);
+            try {
+                if (running.tryAcquire(Math.max(0, remaining), TimeUnit.MILLISECONDS))
+                    return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            expire();
+            permits.release();
+            return false;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(QUEUED, EXPIRED))
+                return;
+
+            if (pool instanceof ThreadPoolExecutor)
+                ((ThreadPoolExecutor) pool).remove(this);
+            timeouts.increment();
+            waitTime.record(System.nanoTime() - queuedAt);
+            onError.accept(new ServiceUnavailableException("Executor " + name + " timed out"));
+        }
+    }
+
+    /**
+     * Срез метрик пула
+     */
+    public static class Snapshot {
+
+        private final String executor;
+        private final boolean virtualThreads;
+        private final int poolSize;
+        private final int active;
+        private final int queued;
+        private final int queueCapacity;
+        private final long completed;
+        private final long rejected;
+        private final long timeouts;
+        private final LatencyHistogram.Snapshot waitTime;
+        private final LatencyHistogram.Snapshot runTime;
+
+        private Snapshot(String executor, boolean virtualThreads, int poolSize, int active, int queued,
+                         int queueCapacity, long completed, long rejected, long timeouts,
+                         LatencyHistogram.Snapshot waitTime, LatencyHistogram.Snapshot runTime) {
+            this.executor = executor;
+            this.virtualThreads = virtualThreads;
+            this.poolSize = poolSize;
+            this.active = active;
+            this.queued = queued;
+            this.queueCapacity = queueCapacity;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.timeouts = timeouts;
+            this.waitTime = waitTime;
+            this.runTime = runTime;
+        }
+
+        public String getExecutor() {
+            return executor;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public LatencyHistogram.Snapshot getWaitTime() {
+            return waitTime;
+        }
+
+        public LatencyHistogram.Snapshot getRunTime() {
+            return runTime;
+        }
+    }
+}
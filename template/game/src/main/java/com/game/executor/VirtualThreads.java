@@ -0,0 +1,53 @@
+package com.game.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Виртуальные потоки Java 21. Проект собирается для Java 8, поэтому они создаются через отражение,
+ * а на более старой JVM {@link #isSupported()} возвращает <code>false</code>
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Создает исполнитель, запускающий каждую задачу в новом виртуальном потоке
+     *
+     * @param prefix префикс имен потоков
+     * @return исполнитель
+     * @throws IllegalStateException если JVM не поддерживает виртуальные потоки
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (OF_VIRTUAL == null)
+            throw new IllegalStateException("Virtual threads are not supported by this JVM");
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.game.filter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие ответов gzip или deflate по заголовку <code>Accept-Encoding</code>.
+ * Ответ накапливается в буфере до заданного размера: короткие ответы отправляются без сжатия,
+ * длинные сжимаются потоком по мере записи. Ответы, уже имеющие <code>Content-Encoding</code>,
+ * например заранее сжатые статические файлы, не изменяются.
+ * Сжатые байты отличаются от исходных, поэтому строгий <code>ETag</code> сжатого ответа ослабляется
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final boolean enabled;
+
+    private final int minSize;
+
+    @Autowired
+    public CompressionFilter(@Value("${compression.enabled:true}") boolean enabled,
+                             @Value("${compression.min-size:1024}") int minSize) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // ответ асинхронного запроса дописывается при повторной отправке запроса
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressing == null) {
+            String encoding = enabled && !"HEAD".equals(request.getMethod())
+                    ? negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                    : null;
+            if (encoding == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            compressing = new CompressingResponse(response, encoding, minSize);
+        }
+
+        chain.doFilter(request, compressing);
+        if (!isAsyncStarted(request))
+            compressing.finish();
+    }
+
+    /**
+     * Выбирает сжатие по заголовку <code>Accept-Encoding</code> с учетом весов <code>q</code>
+     *
+     * @param acceptEncoding значение заголовка
+     * @return <code>gzip</code>, <code>deflate</code> либо <code>null</code>, если сжатие не принимается
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (coding.equals(GZIP) || coding.equals("x-gzip"))
+                gzip = Math.max(gzip, quality);
+            else if (coding.equals(DEFLATE))
+                deflate = quality;
+            else if (coding.equals("*"))
+                any = quality;
+        }
+
+        if (gzip < 0)
+            gzip = any;
+        if (deflate < 0)
+            deflate = any;
+        if (gzip > 0 && gzip >= deflate)
+            return GZIP;
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null)
+            return false;
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+                || type.contains("xml") || type.contains("csv");
+    }
+
+    /**
+     * Ответ, который решает о сжатии после записи первых <code>minSize</code> байт
+     */
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+
+        private final int minSize;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream target;
+
+        private Deflater deflater;
+
+        private boolean compressed;
+
+        private boolean encoded;
+
+        private long contentLength = -1;
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private CompressingResponse(HttpServletResponse response, String encoding, int minSize) {
+            super(response);
+            this.encoding = encoding;
+            this.minSize = minSize;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (target == null)
+                contentLength = length;
+            else if (!compressed)
+                super.setContentLengthLong(length);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                setContentLengthLong(Long.parseLong(value));
+            else {
+                encoded |= HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name);
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                setContentLengthLong(Long.parseLong(value));
+            else {
+                encoded |= HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name);
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null)
+                throw new IllegalStateException("getWriter() has already been called");
+            if (outputStream == null)
+                outputStream = new BufferingOutputStream();
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (outputStream != null && writer == null)
+                throw new IllegalStateException("getOutputStream() has already been called");
+            if (writer == null) {
+                outputStream = new BufferingOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            // до принятия решения о сжатии буфер не отправляется
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            buffer.reset();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            buffer.reset();
+            contentLength = -1;
+            encoded = false;
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (target == null) {
+                if (encoded || !isCompressible(getContentType())
+                        || (contentLength >= 0 && contentLength < minSize)) {
+                    sendPlain();
+                } else if (buffer.size() + length < minSize) {
+                    buffer.write(bytes, offset, length);
+                    return;
+                } else {
+                    sendCompressed();
+                }
+            }
+            target.write(bytes, offset, length);
+        }
+
+        private void sendPlain() throws IOException {
+            if (contentLength >= 0)
+                super.setContentLengthLong(contentLength);
+            target = super.getOutputStream();
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        private void sendCompressed() throws IOException {
+            compressed = true;
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // слабая метка по-прежнему подтверждает If-None-Match, но не выдает сжатые байты за несжатые
+            String eTag = getHeader(HttpHeaders.ETAG);
+            if (eTag != null && !eTag.startsWith("W/")) {
+                super.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+                if (!isVaryingBy(HttpHeaders.ACCEPT))
+                    super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            // синхронный сброс позволяет отправлять сжатые данные по мере записи
+            if (GZIP.equals(encoding)) {
+                target = new GZIPOutputStream(super.getOutputStream(), BUFFER_SIZE, true);
+            } else {
+                deflater = new Deflater();
+                target = new DeflaterOutputStream(super.getOutputStream(), deflater, BUFFER_SIZE, true);
+            }
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        private boolean isVaryingBy(String header) {
+            for (String vary : getHeaders(HttpHeaders.VARY))
+                for (String name : vary.split(","))
+                    if (name.trim().equalsIgnoreCase(header) || name.trim().equals("*"))
+                        return true;
+            return false;
+        }
+
+        private void finish() throws IOException {
+            if (writer != null)
+                writer.flush();
+
+            if (target == null) {
+                if (buffer.size() == 0)
+                    return;
+                contentLength = buffer.size();
+                sendPlain();
+            } else if (compressed) {
+                ((DeflaterOutputStream) target).finish();
+                target.close();
+                if (deflater != null)
+                    deflater.end();
+            }
+        }
+
+        private final class BufferingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                CompressingResponse.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (target != null)
+                    target.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            /**
+             * Неблокирующая запись не поддерживается: тело копится в буфере до решения о сжатии
+             * и пишется в ответ блокирующими вызовами, поэтому {@link #isReady()} всегда <code>true</code>
+             * и уведомления контейнера о готовности к записи не имеют смысла
+             */
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Non-blocking writes are not supported by compressed responses: "
+                        + "the body is buffered and compressed with blocking writes");
+            }
+        }
+    }
+}
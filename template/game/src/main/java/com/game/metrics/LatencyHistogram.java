@@ -0,0 +1,156 @@
+package com.game.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с фиксированными границами корзин.
+ * Запись не блокирует потоки и не выделяет память.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Верхние границы корзин в наносекундах, последняя корзина - бесконечность
+     */
+    private static final long[] BOUNDS = {
+            TimeUnit.MICROSECONDS.toNanos(50),
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(250),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MICROSECONDS.toNanos(2500),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2500),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10)
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Учитывает одно измерение
+     *
+     * @param nanos длительность в наносекундах
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+
+        counts.incrementAndGet(indexOf(nanos));
+        sum.addAndGet(nanos);
+
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos))
+            current = max.get();
+    }
+
+    /**
+     * Учитывает одно измерение в миллисекундах
+     *
+     * @param millis длительность в миллисекундах
+     */
+    public void recordMillis(long millis) {
+        record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Возвращает согласованный срез гистограммы
+     *
+     * @return срез гистограммы
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = counts.get(i);
+            total += buckets[i];
+        }
+        return new Snapshot(buckets, total, sum.get(), max.get());
+    }
+
+    /**
+     * Возвращает верхние границы корзин в наносекундах (без бесконечной)
+     *
+     * @return границы корзин
+     */
+    public static long[] bounds() {
+        return BOUNDS.clone();
+    }
+
+    private static int indexOf(long nanos) {
+        int low = 0;
+        int high = BOUNDS.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (BOUNDS[middle] < nanos)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Срез гистограммы на момент запроса
+     */
+    public static class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Оценивает перцентиль по границам корзин
+         *
+         * @param quantile доля от 0 до 1
+         * @return верхняя граница корзины, в которую попадает перцентиль, в наносекундах
+         */
+        public long percentile(double quantile) {
+            if (count == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank)
+                    return i < BOUNDS.length ? Math.min(BOUNDS[i], max) : max;
+            }
+            return max;
+        }
+    }
+}
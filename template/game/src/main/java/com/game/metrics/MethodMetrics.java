@@ -0,0 +1,76 @@
+package com.game.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики одного метода: гистограмма задержек, число выполняющихся вызовов
+ * и число ошибок по типам исключений. Запись не блокирует потоки
+ * и не выделяет память, кроме первой ошибки нового типа
+ */
+public class MethodMetrics {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder inFlight = new LongAdder();
+    private final ConcurrentHashMap<Class<?>, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Отмечает начало вызова
+     *
+     * @return время начала в наносекундах, передается в {@link #stop(long, Throwable)}
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Отмечает завершение вызова
+     *
+     * @param startedAt время начала, полученное от {@link #start()}
+     * @param error исключение, которым завершился вызов, или <code>null</code>
+     */
+    public void stop(long startedAt, Throwable error) {
+        latency.record(System.nanoTime() - startedAt);
+        inFlight.decrement();
+        if (error != null)
+            errorCounter(error.getClass()).increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Возвращает число ошибок по простым именам классов исключений
+     *
+     * @return ошибки, упорядоченные по имени исключения
+     */
+    public Map<String, Long> getErrors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((type, count) -> result.merge(type.getSimpleName(), count.sum(), Long::sum));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private LongAdder errorCounter(Class<?> type) {
+        // computeIfAbsent в Java 8 блокирует корзину даже для существующего ключа
+        LongAdder counter = errors.get(type);
+        return counter != null ? counter : errors.computeIfAbsent(type, key -> new LongAdder());
+    }
+}
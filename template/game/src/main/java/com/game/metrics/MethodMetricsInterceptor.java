@@ -0,0 +1,57 @@
+package com.game.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Измеряет вызовы методов, для которых заранее созданы метрики.
+ * Для обработчика, вернувшего {@link DeferredResult} или {@link ResponseBodyEmitter},
+ * вызов завершается вместе с асинхронным запросом
+ */
+public class MethodMetricsInterceptor implements MethodInterceptor {
+
+    private final Map<Method, MethodMetrics> metrics;
+
+    /**
+     * @param metrics метрики по методам целевого класса, после создания не изменяются
+     */
+    public MethodMetricsInterceptor(Map<Method, MethodMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodMetrics method = metrics.get(invocation.getMethod());
+        if (method == null)
+            return invocation.proceed();
+
+        long startedAt = method.start();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            method.stop(startedAt, e);
+            throw e;
+        }
+
+        Object body = result instanceof ResponseEntity ? ((ResponseEntity<?>) result).getBody() : result;
+        if (result instanceof DeferredResult) {
+            DeferredResult<?> deferred = (DeferredResult<?>) result;
+            deferred.onCompletion(() -> {
+                Object value = deferred.getResult();
+                method.stop(startedAt, value instanceof Throwable ? (Throwable) value : null);
+            });
+        } else if (body instanceof ResponseBodyEmitter) {
+            ((ResponseBodyEmitter) body).onCompletion(() -> method.stop(startedAt, null));
+        } else {
+            method.stop(startedAt, null);
+        }
+        return result;
+    }
+}
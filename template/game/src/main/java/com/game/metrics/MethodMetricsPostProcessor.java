@@ -0,0 +1,67 @@
+package com.game.metrics;
+
+import com.game.service.PlayerService;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Оборачивает контроллеры и сервис игроков в прокси, измеряющий обработчики запросов
+ * и методы {@link PlayerService}. Сервис внедряется по классу, поэтому прокси создается наследованием.
+ * Объявляется в каждом контексте, бины которого нужно измерять
+ */
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+
+    private final MethodMetricsRegistry registry;
+
+    public MethodMetricsPostProcessor(MethodMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // в общем контексте тестов бин уже обернут обработчиком другой конфигурации
+        if (AopUtils.isAopProxy(bean))
+            return bean;
+
+        Class<?> type = ClassUtils.getUserClass(bean);
+        Map<Method, MethodMetrics> metrics = new HashMap<>();
+        if (AnnotatedElementUtils.hasAnnotation(type, Controller.class)) {
+            for (Method method : type.getMethods())
+                if (AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class))
+                    metrics.put(method, registry.register(MethodMetricsRegistry.Group.HANDLER,
+                            type.getSimpleName() + "." + signature(method)));
+        } else if (bean instanceof PlayerService) {
+            for (Method method : PlayerService.class.getMethods())
+                metrics.put(ClassUtils.getMostSpecificMethod(method, type),
+                        registry.register(MethodMetricsRegistry.Group.SERVICE,
+                                PlayerService.class.getSimpleName() + "." + signature(method)));
+        }
+        if (metrics.isEmpty())
+            return bean;
+
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new MethodMetricsInterceptor(metrics));
+        return factory.getProxy(type.getClassLoader());
+    }
+
+    /**
+     * Имя метода с типами параметров, чтобы различать перегруженные методы
+     */
+    static String signature(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+}
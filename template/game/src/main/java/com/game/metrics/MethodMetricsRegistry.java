@@ -0,0 +1,118 @@
+package com.game.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Метрики обработчиков запросов и методов сервиса игроков.
+ * Выгружаются в текстовом формате Prometheus
+ */
+public class MethodMetricsRegistry {
+
+    /**
+     * Группа методов. Имя группы входит в имена метрик, например <code>player_handler_duration_seconds</code>
+     */
+    public enum Group {
+        HANDLER("handler"),
+        SERVICE("service");
+
+        private final String label;
+
+        Group(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final long[] BOUNDS = LatencyHistogram.bounds();
+
+    private final Map<Group, Map<String, MethodMetrics>> groups = new EnumMap<>(Group.class);
+
+    public MethodMetricsRegistry() {
+        for (Group group : Group.values())
+            groups.put(group, new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Возвращает метрики метода, создавая их при первом обращении
+     *
+     * @param group группа метода
+     * @param name имя метода
+     * @return метрики метода
+     */
+    public MethodMetrics register(Group group, String name) {
+        return groups.get(group).computeIfAbsent(name, MethodMetrics::new);
+    }
+
+    /**
+     * Возвращает метрики методов группы
+     *
+     * @param group группа методов
+     * @return метрики, упорядоченные по имени метода
+     */
+    public Iterable<MethodMetrics> get(Group group) {
+        return groups.get(group).values();
+    }
+
+    /**
+     * Записывает все метрики в текстовом формате Prometheus 0.0.4
+     *
+     * @param out приемник текста
+     * @throws IOException при ошибке записи
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        for (Group group : Group.values()) {
+            String prefix = "player_" + group.getLabel();
+            String label = group == Group.HANDLER ? "handler" : "method";
+
+            String duration = prefix + "_duration_seconds";
+            out.write("# HELP " + duration + " Latency of " + group.getLabel() + " calls.\n");
+            out.write("# TYPE " + duration + " histogram\n");
+            for (MethodMetrics metrics : get(group))
+                writeHistogram(out, duration, label(label, metrics.getName()), metrics.getLatency());
+
+            String errors = prefix + "_errors_total";
+            out.write("# HELP " + errors + " Failed " + group.getLabel() + " calls by exception type.\n");
+            out.write("# TYPE " + errors + " counter\n");
+            for (MethodMetrics metrics : get(group))
+                for (Map.Entry<String, Long> entry : metrics.getErrors().entrySet())
+                    out.write(errors + "{" + label(label, metrics.getName()) + ","
+                            + label("exception", entry.getKey()) + "} " + entry.getValue() + "\n");
+
+            String inFlight = prefix + "_in_flight";
+            out.write("# HELP " + inFlight + " In-flight " + group.getLabel() + " calls.\n");
+            out.write("# TYPE " + inFlight + " gauge\n");
+            for (MethodMetrics metrics : get(group))
+                out.write(inFlight + "{" + label(label, metrics.getName()) + "} " + metrics.getInFlight() + "\n");
+        }
+    }
+
+    private static void writeHistogram(Writer out, String name, String labels, LatencyHistogram.Snapshot snapshot)
+            throws IOException {
+        // корзины Prometheus накопительные, а корзины гистограммы - нет
+        long[] buckets = snapshot.getBuckets();
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i];
+            String le = i < BOUNDS.length ? seconds(BOUNDS[i]) : "+Inf";
+            out.write(name + "_bucket{" + labels + ",le=\"" + le + "\"} " + cumulative + "\n");
+        }
+        out.write(name + "_sum{" + labels + "} " + seconds(snapshot.getSum()) + "\n");
+        out.write(name + "_count{" + labels + "} " + cumulative + "\n");
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
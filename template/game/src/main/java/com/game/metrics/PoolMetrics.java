@@ -0,0 +1,163 @@
+package com.game.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики пула соединений с базой данных
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final LatencyHistogram borrowTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.recordMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                borrowTime.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.recordMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public LatencyHistogram getBorrowTime() {
+        return borrowTime;
+    }
+
+    public LatencyHistogram getUsageTime() {
+        return usageTime;
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Возвращает текущее состояние пула
+     *
+     * @return срез метрик пула, пустой если пул не создан
+     */
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        if (stats == null)
+            return new Snapshot(null, 0, 0, 0, 0, 0, 0, timeouts.sum(),
+                    borrowTime.snapshot(), usageTime.snapshot(), creationTime.snapshot());
+
+        return new Snapshot(poolName,
+                stats.getActiveConnections(),
+                stats.getIdleConnections(),
+                stats.getPendingThreads(),
+                stats.getTotalConnections(),
+                stats.getMinConnections(),
+                stats.getMaxConnections(),
+                timeouts.sum(),
+                borrowTime.snapshot(),
+                usageTime.snapshot(),
+                creationTime.snapshot());
+    }
+
+    /**
+     * Срез метрик пула
+     */
+    public static class Snapshot {
+
+        private final String pool;
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final int total;
+        private final int minimum;
+        private final int maximum;
+        private final long timeouts;
+        private final LatencyHistogram.Snapshot borrowTime;
+        private final LatencyHistogram.Snapshot usageTime;
+        private final LatencyHistogram.Snapshot creationTime;
+
+        private Snapshot(String pool, int active, int idle, int waiting, int total, int minimum, int maximum,
+                         long timeouts, LatencyHistogram.Snapshot borrowTime, LatencyHistogram.Snapshot usageTime,
+                         LatencyHistogram.Snapshot creationTime) {
+            this.pool = pool;
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.total = total;
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.timeouts = timeouts;
+            this.borrowTime = borrowTime;
+            this.usageTime = usageTime;
+            this.creationTime = creationTime;
+        }
+
+        public String getPool() {
+            return pool;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getMinimum() {
+            return minimum;
+        }
+
+        public int getMaximum() {
+            return maximum;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public LatencyHistogram.Snapshot getBorrowTime() {
+            return borrowTime;
+        }
+
+        public LatencyHistogram.Snapshot getUsageTime() {
+            return usageTime;
+        }
+
+        public LatencyHistogram.Snapshot getCreationTime() {
+            return creationTime;
+        }
+    }
+}
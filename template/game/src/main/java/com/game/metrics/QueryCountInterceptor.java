@@ -0,0 +1,60 @@
+package com.game.metrics;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Считает SQL запросы каждого HTTP запроса. Счетчик хранится в атрибуте запроса,
+ * поэтому переживает асинхронную обработку и повторную диспетчеризацию
+ */
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTER_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".counter";
+
+    private final SqlMetrics metrics;
+    private final ConcurrentHashMap<Method, String> names = new ConcurrentHashMap<>();
+
+    public QueryCountInterceptor(SqlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod))
+            return true;
+
+        QueryCounter counter = (QueryCounter) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            counter = new QueryCounter(name((HandlerMethod) handler));
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        }
+        QueryCounter.attach(counter);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // запросы дальше выполняются в пуле, поток контейнера освобождается
+        QueryCounter.attach(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        QueryCounter.attach(null);
+        QueryCounter counter = (QueryCounter) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter != null)
+            metrics.recordRequest(counter);
+    }
+
+    private String name(HandlerMethod handler) {
+        return names.computeIfAbsent(handler.getMethod(),
+                method -> handler.getBeanType().getSimpleName() + "." + MethodMetricsPostProcessor.signature(method));
+    }
+}
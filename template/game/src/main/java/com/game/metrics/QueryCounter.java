@@ -0,0 +1,80 @@
+package com.game.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Счетчик SQL запросов одного HTTP запроса. Привязывается к потоку
+ * и переносится вместе с задачами в пулы, где выполняется работа запроса
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final AtomicInteger queries = new AtomicInteger();
+
+    /**
+     * @param handler имя обработчика запроса
+     */
+    public QueryCounter(String handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Возвращает счетчик текущего потока
+     *
+     * @return счетчик или <code>null</code>, если поток не выполняет HTTP запрос
+     */
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Привязывает счетчик к текущему потоку
+     *
+     * @param counter счетчик или <code>null</code>, чтобы отвязать
+     * @return счетчик, который был привязан раньше
+     */
+    public static QueryCounter attach(QueryCounter counter) {
+        QueryCounter previous = CURRENT.get();
+        if (counter == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(counter);
+        return previous;
+    }
+
+    /**
+     * Оборачивает задачу так, чтобы ее запросы учитывались счетчиком текущего потока.
+     * Подходит как декоратор задач пула Spring
+     *
+     * @param task задача
+     * @return задача со счетчиком вызывающего потока
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryCounter counter = CURRENT.get();
+        if (counter == null)
+            return task;
+
+        return () -> {
+            QueryCounter previous = attach(counter);
+            try {
+                task.run();
+            } finally {
+                attach(previous);
+            }
+        };
+    }
+
+    public void increment() {
+        queries.incrementAndGet();
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public int getQueries() {
+        return queries.get();
+    }
+}
@@ -0,0 +1,438 @@
+package com.game.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Метрики SQL запросов: время выполнения по форме запроса, журнал медленных запросов
+ * с параметрами и число запросов на HTTP запрос по обработчикам.
+ * Формой считается текст запроса, в котором литералы и списки параметров заменены на <code>?</code>
+ */
+public class SqlMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetrics.class);
+
+    /**
+     * Наибольшее число различных форм, остальные учитываются вместе
+     */
+    private static final int MAX_SHAPES = 1000;
+    private static final String OTHER_SHAPE = "(other)";
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Границы корзин распределения числа запросов на HTTP запрос, последняя корзина - бесконечность
+     */
+    private static final int[] QUERY_BOUNDS = {0, 1, 2, 3, 5, 10, 20, 50, 100};
+
+    private final long slowThresholdNanos;
+    private final boolean explainSlow;
+    private final int requestQueryWarn;
+    private final int slowLogSize;
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slowStatements = new LongAdder();
+    private final ConcurrentHashMap<String, String> shapeCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RequestStats> requests = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowQuery> slowLog = new ArrayDeque<>();
+
+    /**
+     * @param slowThresholdMillis время, начиная с которого запрос считается медленным
+     * @param explainSlow получать план медленных запросов SELECT
+     * @param requestQueryWarn число SQL запросов, начиная с которого HTTP запрос попадает в журнал
+     * @param slowLogSize сколько последних медленных запросов хранить
+     */
+    public SqlMetrics(long slowThresholdMillis, boolean explainSlow, int requestQueryWarn, int slowLogSize) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.explainSlow = explainSlow;
+        this.requestQueryWarn = requestQueryWarn;
+        this.slowLogSize = slowLogSize;
+    }
+
+    /**
+     * Учитывает выполненный запрос
+     *
+     * @param sql текст запроса
+     * @param nanos время выполнения в наносекундах
+     * @param failed запрос завершился ошибкой
+     * @return запрос медленный и должен быть передан в {@link #recordSlow}
+     */
+    public boolean record(String sql, long nanos, boolean failed) {
+        statements.increment();
+        ShapeStats stats = shapeStats(shapeOf(sql));
+        stats.latency.record(nanos);
+        if (failed) {
+            errors.increment();
+            stats.errors.increment();
+        }
+
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null)
+            counter.increment();
+
+        return nanos >= slowThresholdNanos;
+    }
+
+    /**
+     * Записывает медленный запрос в журнал
+     *
+     * @param sql текст запроса
+     * @param parameters параметры запроса по порядку
+     * @param nanos время выполнения в наносекундах
+     * @param plan план запроса или <code>null</code>
+     */
+    public void recordSlow(String sql, List<?> parameters, long nanos, String plan) {
+        slowStatements.increment();
+        QueryCounter counter = QueryCounter.current();
+        SlowQuery query = new SlowQuery(System.currentTimeMillis(),
+                counter != null ? counter.getHandler() : null,
+                nanos / 1_000_000.0,
+                shapeOf(sql),
+                sql,
+                parameters.stream().map(SqlMetrics::render).collect(Collectors.toList()),
+                plan);
+
+        log.warn("Slow SQL ({} ms) in {}: {} {}{}", query.durationMillis, query.handler, sql, query.parameters,
+                plan != null ? "\n" + plan : "");
+
+        synchronized (slowLog) {
+            if (slowLog.size() == slowLogSize)
+                slowLog.removeFirst();
+            slowLog.addLast(query);
+        }
+    }
+
+    /**
+     * Учитывает число SQL запросов завершившегося HTTP запроса
+     *
+     * @param counter счетчик HTTP запроса
+     */
+    public void recordRequest(QueryCounter counter) {
+        int queries = counter.getQueries();
+        requests.computeIfAbsent(counter.getHandler(), RequestStats::new).record(queries);
+
+        if (queries >= requestQueryWarn)
+            log.warn("{} SQL statements in one request to {}", queries, counter.getHandler());
+    }
+
+    public boolean isExplainSlow() {
+        return explainSlow;
+    }
+
+    /**
+     * Возвращает статистику запросов
+     *
+     * @param limit сколько форм с наибольшим суммарным временем вернуть
+     * @return статистика форм, обработчиков и последние медленные запросы
+     */
+    public Stats stats(int limit) {
+        List<ShapeSnapshot> topShapes = shapes.values().stream()
+                .map(ShapeStats::snapshot)
+                .sorted(Comparator.comparingLong((ShapeSnapshot shape) -> shape.latency.getSum()).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        List<RequestSnapshot> handlers = requests.values().stream()
+                .map(RequestStats::snapshot)
+                .sorted(Comparator.comparing(RequestSnapshot::getHandler))
+                .collect(Collectors.toList());
+
+        List<SlowQuery> slow = new ArrayList<>();
+        synchronized (slowLog) {
+            Iterator<SlowQuery> iterator = slowLog.descendingIterator();
+            while (iterator.hasNext())
+                slow.add(iterator.next());
+        }
+
+        return new Stats(statements.sum(), errors.sum(), slowStatements.sum(), shapes.size(),
+                topShapes, handlers, slow);
+    }
+
+    /**
+     * Приводит текст запроса к форме: литералы и списки параметров заменяются на <code>?</code>,
+     * пробельные символы схлопываются
+     *
+     * @param sql текст запроса
+     * @return форма запроса
+     */
+    public static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private String shapeOf(String sql) {
+        // текст запросов Hibernate повторяется, поэтому форма вычисляется один раз на текст
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeCache.size() < MAX_SHAPES * 2)
+                shapeCache.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private ShapeStats shapeStats(String shape) {
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null)
+            return stats;
+        if (shapes.size() >= MAX_SHAPES)
+            shape = OTHER_SHAPE;
+        return shapes.computeIfAbsent(shape, ShapeStats::new);
+    }
+
+    private static String render(Object value) {
+        if (value == null)
+            return "NULL";
+        String text = String.valueOf(value);
+        if (text.length() > MAX_PARAMETER_LENGTH)
+            text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private static class ShapeStats {
+
+        private final String shape;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private ShapeStats(String shape) {
+            this.shape = shape;
+        }
+
+        private ShapeSnapshot snapshot() {
+            return new ShapeSnapshot(shape, errors.sum(), latency.snapshot());
+        }
+    }
+
+    private static class RequestStats {
+
+        private final String handler;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+        private final AtomicInteger max = new AtomicInteger();
+        private final LongAdder[] buckets = new LongAdder[QUERY_BOUNDS.length + 1];
+
+        private RequestStats(String handler) {
+            this.handler = handler;
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        private void record(int count) {
+            requests.increment();
+            queries.add(count);
+            max.accumulateAndGet(count, Math::max);
+
+            int index = 0;
+            while (index < QUERY_BOUNDS.length && QUERY_BOUNDS[index] < count)
+                index++;
+            buckets[index].increment();
+        }
+
+        private RequestSnapshot snapshot() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = buckets[i].sum();
+            return new RequestSnapshot(handler, requests.sum(), queries.sum(), max.get(), counts);
+        }
+    }
+
+    /**
+     * Статистика запросов на момент обращения
+     */
+    public static class Stats {
+
+        private final long statements;
+        private final long errors;
+        private final long slowStatements;
+        private final int shapeCount;
+        private final List<ShapeSnapshot> shapes;
+        private final List<RequestSnapshot> requests;
+        private final List<SlowQuery> slowQueries;
+
+        private Stats(long statements, long errors, long slowStatements, int shapeCount,
+                      List<ShapeSnapshot> shapes, List<RequestSnapshot> requests, List<SlowQuery> slowQueries) {
+            this.statements = statements;
+            this.errors = errors;
+            this.slowStatements = slowStatements;
+            this.shapeCount = shapeCount;
+            this.shapes = shapes;
+            this.requests = requests;
+            this.slowQueries = slowQueries;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getSlowStatements() {
+            return slowStatements;
+        }
+
+        public int getShapeCount() {
+            return shapeCount;
+        }
+
+        public List<ShapeSnapshot> getShapes() {
+            return shapes;
+        }
+
+        public List<RequestSnapshot> getRequests() {
+            return requests;
+        }
+
+        public List<SlowQuery> getSlowQueries() {
+            return slowQueries;
+        }
+    }
+
+    /**
+     * Время выполнения запросов одной формы
+     */
+    public static class ShapeSnapshot {
+
+        private final String shape;
+        private final long errors;
+        private final LatencyHistogram.Snapshot latency;
+
+        private ShapeSnapshot(String shape, long errors, LatencyHistogram.Snapshot latency) {
+            this.shape = shape;
+            this.errors = errors;
+            this.latency = latency;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * Число SQL запросов на HTTP запрос к одному обработчику
+     */
+    public static class RequestSnapshot {
+
+        private final String handler;
+        private final long requests;
+        private final long queries;
+        private final int maxQueries;
+        private final int[] bounds = QUERY_BOUNDS.clone();
+        private final long[] buckets;
+
+        private RequestSnapshot(String handler, long requests, long queries, int maxQueries, long[] buckets) {
+            this.handler = handler;
+            this.requests = requests;
+            this.queries = queries;
+            this.maxQueries = maxQueries;
+            this.buckets = buckets;
+        }
+
+        public String getHandler() {
+            return handler;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getQueries() {
+            return queries;
+        }
+
+        public int getMaxQueries() {
+            return maxQueries;
+        }
+
+        public int[] getBounds() {
+            return bounds.clone();
+        }
+
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+    }
+
+    /**
+     * Медленный запрос с параметрами и, если включено, планом выполнения
+     */
+    public static class SlowQuery {
+
+        private final long timestamp;
+        private final String handler;
+        private final double durationMillis;
+        private final String shape;
+        private final String sql;
+        private final List<String> parameters;
+        private final String plan;
+
+        private SlowQuery(long timestamp, String handler, double durationMillis, String shape, String sql,
+                          List<String> parameters, String plan) {
+            this.timestamp = timestamp;
+            this.handler = handler;
+            this.durationMillis = durationMillis;
+            this.shape = shape;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.plan = plan;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getHandler() {
+            return handler;
+        }
+
+        public double getDurationMillis() {
+            return durationMillis;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<String> getParameters() {
+            return parameters;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.game.metrics;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Источник соединений, измеряющий каждый SQL запрос. Соединения и выражения оборачиваются
+ * динамическими прокси, время выполнения <code>execute*</code> передается в {@link SqlMetrics}.
+ * Параметры подготовленного выражения запоминаются, чтобы записать их в журнал медленных запросов.
+ * Время чтения результата после <code>executeQuery</code> не учитывается
+ */
+public class TracingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final SqlMetrics metrics;
+
+    public TracingDataSource(DataSource target, SqlMetrics metrics) {
+        super(target);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trace(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trace(super.getConnection(username, password));
+    }
+
+    /**
+     * Закрывает исходный источник: пул соединений или встроенную базу данных
+     */
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        if (target instanceof AutoCloseable)
+            ((AutoCloseable) target).close();
+        else if (target instanceof EmbeddedDatabase)
+            ((EmbeddedDatabase) target).shutdown();
+    }
+
+    private Connection trace(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Traced " + target;
+                default:
+                    break;
+            }
+
+            Object result = TracingDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement)
+                return statement(proxy, (Statement) result, CallableStatement.class, (String) args[0]);
+            if (result instanceof PreparedStatement)
+                return statement(proxy, (Statement) result, PreparedStatement.class, (String) args[0]);
+            if (result instanceof Statement)
+                return statement(proxy, (Statement) result, Statement.class, null);
+            return result;
+        }
+
+        private Object statement(Object connection, Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(connection, target, statement, sql));
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Object connection;
+        private final Connection targetConnection;
+        private final Statement target;
+        private final List<Object> parameters;
+        private String sql;
+
+        private StatementHandler(Object connection, Connection targetConnection, Statement target, String sql) {
+            this.connection = connection;
+            this.targetConnection = targetConnection;
+            this.target = target;
+            this.sql = sql;
+            this.parameters = sql != null ? new ArrayList<>() : Collections.emptyList();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && method.getDeclaringClass() != Statement.class) {
+                setParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("getConnection")) {
+                return connection;
+            } else if (name.equals("addBatch") && args != null) {
+                sql = (String) args[0];
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return TracingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            boolean failed = true;
+            long startedAt = System.nanoTime();
+            try {
+                Object result = TracingDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                long nanos = System.nanoTime() - startedAt;
+                if (statementSql != null && metrics.record(statementSql, nanos, failed))
+                    metrics.recordSlow(statementSql, parameters, nanos, failed ? null : explain(statementSql));
+            }
+        }
+
+        private void setParameter(int index, Object value) {
+            while (parameters.size() < index)
+                parameters.add(null);
+            parameters.set(index - 1, value);
+        }
+
+        /**
+         * Получает план запроса SELECT на том же соединении с теми же параметрами
+         */
+        private String explain(String statementSql) {
+            if (!metrics.isExplainSlow() || !statementSql.trim().regionMatches(true, 0, "select", 0, 6))
+                return null;
+
+            try (PreparedStatement explain = targetConnection.prepareStatement("EXPLAIN " + statementSql)) {
+                for (int i = 0; i < parameters.size(); i++)
+                    explain.setObject(i + 1, parameters.get(i));
+
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = explain.executeQuery()) {
+                    int columns = rows.getMetaData().getColumnCount();
+                    while (rows.next()) {
+                        for (int column = 1; column <= columns; column++)
+                            plan.append(column > 1 ? "\t" : "").append(rows.getString(column));
+                        plan.append('\n');
+                    }
+                }
+                return plan.toString().trim();
+            } catch (SQLException e) {
+                return "EXPLAIN failed: " + e.getMessage();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.game.migration;
+
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+
+/**
+ * Версионные миграции схемы базы данных.
+ * Скрипты лежат в <code>db/migration</code> и применяются по возрастанию версии
+ */
+public class SchemaMigrator {
+
+    public static final String LOCATION = "classpath:db/migration";
+
+    /**
+     * Версия, которой соответствует схема, созданная скриптом <code>init.sql</code>
+     */
+    public static final String BASELINE_VERSION = "1";
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Применяет недостающие миграции.
+     * Существующая схема без истории миграций считается версией {@link #BASELINE_VERSION}
+     *
+     * @return количество примененных миграций
+     */
+    public int migrate() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(LOCATION)
+                .baselineOnMigrate(true)
+                .baselineVersion(BASELINE_VERSION)
+                .load()
+                .migrate()
+                .migrationsExecuted;
+    }
+}
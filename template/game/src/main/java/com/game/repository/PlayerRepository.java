@@ -5,8 +5,56 @@ package com.game.repository;
 import com.game.entity.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
-public interface PlayerRepository extends JpaRepository<Player, Long>, JpaSpecificationExecutor<Player> {
+public interface PlayerRepository extends JpaRepository<Player, Long>, JpaSpecificationExecutor<Player>,
+        PlayerRepositoryCustom {
+
+    /**
+     * Читает id, имена и титулы всех игроков по порядку id.
+     * Должен вызываться внутри транзакции, поток нужно закрыть
+     *
+     * @return поток строк <code>[id, name, title]</code>
+     */
+    @Query("select p.id, p.name, p.title from Player p order by p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamNamesAndTitles();
+
+    /**
+     * Читает значения всех столбцов игроков по порядку id без создания сущностей.
+     * Должен вызываться внутри транзакции, поток нужно закрыть
+     *
+     * @return поток строк <code>[id, name, title, race, profession, birthday, banned,
+     * experience, level, untilNextLevel, version]</code>
+     */
+    @Query("select p.id, p.name, p.title, p.race, p.profession, p.birthday, p.banned, " +
+            "p.experience, p.level, p.untilNextLevel, p.version from Player p order by p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamColumns();
+
+    /**
+     * Считает игроков и их суммарный опыт по расе, профессии и признаку бана
+     *
+     * @return строки <code>[race, profession, banned, count, sum(experience)]</code>
+     */
+    @Query("select p.race, p.profession, p.banned, count(p), sum(p.experience) from Player p " +
+            "group by p.race, p.profession, p.banned")
+    List<Object[]> countByRaceProfessionBanned();
+
+    /**
+     * Считает игроков по уровням
+     *
+     * @return строки <code>[level, count]</code>
+     */
+    @Query("select p.level, count(p) from Player p group by p.level")
+    List<Object[]> countByLevel();
 }
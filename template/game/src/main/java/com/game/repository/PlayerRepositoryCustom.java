@@ -0,0 +1,126 @@
+package com.game.repository;
+
+import com.game.dto.PlayerChangeSet;
+import com.game.dto.PlayerFields;
+import com.game.entity.Player;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Запросы к игрокам, которые не выражаются через {@link org.springframework.data.jpa.repository.JpaRepository}
+ */
+public interface PlayerRepositoryCustom {
+
+    /**
+     * Возвращает страницу игроков без подсчета их общего количества
+     *
+     * @param specification фильтр
+     * @param pageable страница и сортировка
+     * @return срез игроков
+     */
+    Slice<Player> findSlice(Specification<Player> specification, Pageable pageable);
+
+    /**
+     * Возвращает страницу игроков, выбирая из базы данных только заданные столбцы.
+     * Сущности не создаются и не отслеживаются контекстом персистентности
+     *
+     * @param specification фильтр
+     * @param pageable страница и сортировка
+     * @param fields выбираемые поля
+     * @return срез строк с выбранными полями
+     */
+    Slice<Map<String, Object>> findSlice(Specification<Player> specification, Pageable pageable, PlayerFields fields);
+
+    /**
+     * Передает игроков по одному, читая их курсором только вперед.
+     * Контекст персистентности очищается после каждой порции, поэтому память не растет с числом строк.
+     * Должен вызываться внутри транзакции
+     *
+     * @param specification фильтр
+     * @param sort сортировка
+     * @param fetchSize количество строк, получаемых драйвером за одно обращение
+     * @param action обработка игрока
+     */
+    void forEach(Specification<Player> specification, Sort sort, int fetchSize, Consumer<Player> action);
+
+    /**
+     * Передает строки с заданными столбцами игроков по одному, читая их курсором только вперед.
+     * Должен вызываться внутри транзакции
+     *
+     * @param specification фильтр
+     * @param sort сортировка
+     * @param fetchSize количество строк, получаемых драйвером за одно обращение
+     * @param fields выбираемые поля
+     * @param action обработка строки
+     */
+    void forEach(Specification<Player> specification, Sort sort, int fetchSize, PlayerFields fields,
+                 Consumer<Map<String, Object>> action);
+
+    /**
+     * Читает игроков по фильтру выражением <code>SELECT ... FOR UPDATE</code> в порядке id.
+     * Строки остаются заблокированными до конца транзакции, сущности отсоединяются от контекста
+     * персистентности, чтобы последующие UPDATE и чтения не затронули прочитанные значения.
+     * Должен вызываться внутри транзакции
+     *
+     * @param specification фильтр
+     * @return игроки до изменения
+     */
+    List<Player> findAllForUpdate(Specification<Player> specification);
+
+    /**
+     * Вставляет игроков пакетами JDBC и записывает в них сгенерированные id.
+     * Должен вызываться внутри транзакции
+     *
+     * @param players игроки без id
+     * @param batchSize количество строк в пакете
+     */
+    void insertAll(List<Player> players, int batchSize);
+
+    /**
+     * Изменяет всех игроков по фильтру одним выражением UPDATE.
+     * Уровень и опыт до следующего уровня пересчитываются в SQL.
+     * Должен вызываться внутри транзакции
+     *
+     * @param specification фильтр
+     * @param changes изменения
+     * @param maxExperience верхняя граница опыта
+     * @return количество измененных игроков
+     */
+    int updateAll(Specification<Player> specification, PlayerChangeSet changes, int maxExperience);
+
+    /**
+     * Изменяет заданные поля игрока одним выражением UPDATE и увеличивает версию строки
+     *
+     * @param id id игрока
+     * @param changes игрок, в котором заданы только изменяемые поля
+     * @param expectedVersion ожидаемая версия строки либо <code>null</code>, если версия не проверяется
+     * @return количество измененных строк: 0, если игрока нет или версия не совпала
+     */
+    int patch(Long id, Player changes, Long expectedVersion);
+
+    /**
+     * Удаляет игрока одним выражением DELETE без предварительного чтения сущности.
+     * Должен вызываться внутри транзакции
+     *
+     * @param id id игрока
+     * @param expectedVersion ожидаемая версия строки либо <code>null</code>, если версия не проверяется
+     * @return количество удаленных строк: 0, если игрока нет или версия не совпала
+     */
+    int delete(Long id, Long expectedVersion);
+
+    /**
+     * Удаляет игроков одним выражением <code>DELETE ... WHERE id IN (...)</code>.
+     * Должен вызываться внутри транзакции
+     *
+     * @param ids id игроков
+     * @return количество удаленных строк
+     */
+    int deleteAll(Collection<Long> ids);
+}
@@ -0,0 +1,332 @@
+package com.game.repository;
+
+import com.game.dto.PlayerChangeSet;
+import com.game.dto.PlayerFields;
+import com.game.entity.Player;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class PlayerRepositoryImpl implements PlayerRepositoryCustom {
+
+    private static final String INSERT = "insert into player " +
+            "(name, title, race, profession, birthday, banned, experience, level, untilNextLevel) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Player> findSlice(Specification<Player> specification, Pageable pageable) {
+        TypedQuery<Player> typedQuery = createQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged())
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+
+        // лишняя строка показывает, есть ли следующая страница, без запроса COUNT
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<Player> content = typedQuery.getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext)
+            content = content.subList(0, pageable.getPageSize());
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findSlice(Specification<Player> specification, Pageable pageable,
+                                                PlayerFields fields) {
+        TypedQuery<Object[]> typedQuery = createProjection(specification, pageable.getSort(), fields);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        }
+
+        List<Object[]> rows = typedQuery.getResultList();
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        if (hasNext)
+            rows = rows.subList(0, pageable.getPageSize());
+
+        List<Map<String, Object>> content = new ArrayList<>(rows.size());
+        for (Object row : rows)
+            content.add(fields.toMap(toRow(row)));
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Specification<Player> specification, Sort sort, int fetchSize, Consumer<Player> action) {
+        org.hibernate.query.Query<Player> query = createQuery(specification, sort)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            int count = 0;
+            while (results.next()) {
+                action.accept((Player) results.get(0));
+                if (++count % fetchSize == 0)
+                    entityManager.clear();
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    @Override
+    public void forEach(Specification<Player> specification, Sort sort, int fetchSize, PlayerFields fields,
+                        Consumer<Map<String, Object>> action) {
+        org.hibernate.query.Query<?> query = createProjection(specification, sort, fields)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+
+        // строки не являются сущностями, поэтому контекст персистентности не растет
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                // курсор может вернуть строку массивом столбцов либо завернутой в массив из одного элемента
+                Object[] row = results.get();
+                action.accept(fields.toMap(toRow(row.length == 1 ? row[0] : row)));
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    @Override
+    public void insertAll(List<Player> players, int batchSize) {
+        // при генерации id через IDENTITY Hibernate не объединяет вставки в пакеты,
+        // поэтому вставка выполняется на соединении текущей транзакции напрямую
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < players.size(); from += batchSize) {
+                    List<Player> batch = players.subList(from, Math.min(players.size(), from + batchSize));
+                    for (Player player : batch) {
+                        statement.setString(1, player.getName());
+                        statement.setString(2, player.getTitle());
+                        statement.setString(3, player.getRace().name());
+                        statement.setString(4, player.getProfession().name());
+                        statement.setDate(5, new Date(player.getBirthday().getTime()));
+                        statement.setBoolean(6, player.getBanned());
+                        statement.setInt(7, player.getExperience());
+                        statement.setInt(8, player.getLevel());
+                        statement.setInt(9, player.getUntilNextLevel());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Player player : batch) {
+                            if (!keys.next())
+                                throw new IllegalStateException("Generated id is missing for batch insert");
+                            player.setId(keys.getLong(1));
+                            player.setVersion(0L);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<Player> findAllForUpdate(Specification<Player> specification) {
+        // блокировки берутся в порядке id, чтобы встречные изменения не приводили к взаимной блокировке
+        List<Player> players = createQuery(specification, Sort.by("id"))
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        players.forEach(entityManager::detach);
+        return players;
+    }
+
+    @Override
+    public int updateAll(Specification<Player> specification, PlayerChangeSet changes, int maxExperience) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Player> update = criteriaBuilder.createCriteriaUpdate(Player.class);
+        Root<Player> root = update.from(Player.class);
+
+        if (changes.getBanned() != null)
+            update.set(root.<Boolean>get("banned"), changes.getBanned());
+
+        if (changes.getTitle() != null)
+            update.set(root.<String>get("title"), changes.getTitle());
+
+        if (changes.getExperienceDelta() != null) {
+            // MySQL вычисляет SET слева направо по уже измененным значениям,
+            // поэтому все выражения строятся от старого опыта, а опыт изменяется последним
+            Expression<Integer> experience = criteriaBuilder.function("least", Integer.class,
+                    criteriaBuilder.literal(maxExperience),
+                    criteriaBuilder.function("greatest", Integer.class, criteriaBuilder.literal(0),
+                            criteriaBuilder.sum(root.get("experience"), changes.getExperienceDelta())));
+
+            // getCurrentLevel: (floor(sqrt(2500 + 200 * experience)) - 50) / 100
+            Expression<Integer> level = floor(criteriaBuilder, criteriaBuilder.quot(
+                    criteriaBuilder.diff(floor(criteriaBuilder, criteriaBuilder.sqrt(
+                            criteriaBuilder.sum(criteriaBuilder.literal(2500),
+                                    criteriaBuilder.prod(criteriaBuilder.literal(200), experience)))), 50), 100));
+
+            // getExperienceUntilNextLevel: 50 * (level + 1) * (level + 2) - experience
+            Expression<Integer> untilNextLevel = criteriaBuilder.diff(criteriaBuilder.prod(
+                    criteriaBuilder.prod(criteriaBuilder.literal(50), criteriaBuilder.sum(level, 1)),
+                    criteriaBuilder.sum(level, 2)), experience);
+
+            update.set(root.<Integer>get("level"), level);
+            update.set(root.<Integer>get("untilNextLevel"), untilNextLevel);
+            update.set(root.<Integer>get("experience"), experience);
+        }
+
+        Path<Long> version = root.get("version");
+        update.set(version, criteriaBuilder.sum(version, 1L));
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, null, criteriaBuilder);
+            if (predicate != null)
+                update.where(predicate);
+        }
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int patch(Long id, Player changes, Long expectedVersion) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Player> update = criteriaBuilder.createCriteriaUpdate(Player.class);
+        Root<Player> root = update.from(Player.class);
+
+        setIfPresent(update, root.get("name"), changes.getName());
+        setIfPresent(update, root.get("title"), changes.getTitle());
+        setIfPresent(update, root.get("race"), changes.getRace());
+        setIfPresent(update, root.get("profession"), changes.getProfession());
+        setIfPresent(update, root.get("birthday"), changes.getBirthday());
+        setIfPresent(update, root.get("banned"), changes.getBanned());
+        setIfPresent(update, root.get("experience"), changes.getExperience());
+        setIfPresent(update, root.get("level"), changes.getLevel());
+        setIfPresent(update, root.get("untilNextLevel"), changes.getUntilNextLevel());
+
+        Path<Long> version = root.get("version");
+        update.set(version, criteriaBuilder.sum(version, 1L));
+
+        Predicate predicate = criteriaBuilder.equal(root.get("id"), id);
+        if (expectedVersion != null)
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(version, expectedVersion));
+        update.where(predicate);
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int delete(Long id, Long expectedVersion) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Player> delete = criteriaBuilder.createCriteriaDelete(Player.class);
+        Root<Player> root = delete.from(Player.class);
+
+        Predicate predicate = criteriaBuilder.equal(root.get("id"), id);
+        if (expectedVersion != null)
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("version"), expectedVersion));
+        delete.where(predicate);
+
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return 0;
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Player> delete = criteriaBuilder.createCriteriaDelete(Player.class);
+        Root<Player> root = delete.from(Player.class);
+        delete.where(root.get("id").in(ids));
+
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    private static <T> void setIfPresent(CriteriaUpdate<Player> update, Path<T> path, T value) {
+        if (value != null)
+            update.set(path, value);
+    }
+
+    private TypedQuery<Player> createQuery(Specification<Player> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Player> query = criteriaBuilder.createQuery(Player.class);
+        Root<Player> root = query.from(Player.class);
+        query.select(root);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null)
+                query.where(predicate);
+        }
+
+        if (sort.isSorted())
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query);
+    }
+
+    private TypedQuery<Object[]> createProjection(Specification<Player> specification, Sort sort,
+                                                  PlayerFields fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<Player> root = query.from(Player.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.getNames().size());
+        for (String name : fields.getNames())
+            selections.add(root.get(name));
+        query.multiselect(selections);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null)
+                query.where(predicate);
+        }
+
+        if (sort.isSorted())
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query);
+    }
+
+    private static Object[] toRow(Object row) {
+        // при одном выбранном столбце строка может прийти значением, а не массивом
+        return row instanceof Object[] ? (Object[]) row : new Object[]{row};
+    }
+
+    private static Expression<Integer> floor(CriteriaBuilder criteriaBuilder, Expression<? extends Number> value) {
+        return criteriaBuilder.function("floor", Integer.class, value);
+    }
+}
@@ -0,0 +1,184 @@
+package com.game.search;
+
+import com.game.entity.Player;
+import com.game.repository.PlayerRepository;
+import com.game.service.PlayerChangeListener;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Индекс триграмм по имени и титулу игроков.
+ * Сужает поиск <code>LIKE '%x%'</code>, который не может использовать индекс базы данных.
+ * Пока выполняется запись, которая может изменить имя или титул, поиск не сужается,
+ * чтобы не потерять строку, зафиксированную в базе данных, но еще не попавшую в индекс
+ */
+@Component
+@Order(PlayerChangeListener.STRUCTURE_ORDER)
+public class PlayerTextIndex implements PlayerChangeListener, InitializingBean {
+
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex titles = new TrigramIndex();
+
+    private final PlayerRepository playerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private volatile boolean ready;
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    @Autowired
+    public PlayerTextIndex(PlayerRepository playerRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${search.trigram.enabled:true}") boolean enabled,
+                           @Value("${search.trigram.max-candidates:1000}") int maxCandidates) {
+        this.playerRepository = playerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Строит индекс по всем игрокам в базе данных
+     */
+    public void rebuild() {
+        if (!enabled)
+            return;
+
+        ready = false;
+        names.clear();
+        titles.clear();
+        ready = transactionTemplate.execute(status -> {
+            try (Stream<Object[]> rows = playerRepository.streamNamesAndTitles()) {
+                return rows
+                        .map(row -> add(((Number) row[0]).longValue(), (String) row[1], (String) row[2]))
+                        .reduce(true, Boolean::logicalAnd);
+            }
+        });
+    }
+
+    /**
+     * Возвращает id игроков, имя которых может содержать подстроку
+     *
+     * @param name подстрока из фильтра
+     * @return отсортированные id либо <code>null</code>, если индекс не может сузить поиск
+     */
+    public int[] findByName(String name) {
+        return candidates(names, name);
+    }
+
+    /**
+     * Возвращает id игроков, титул которых может содержать подстроку
+     *
+     * @param title подстрока из фильтра
+     * @return отсортированные id либо <code>null</code>, если индекс не может сузить поиск
+     */
+    public int[] findByTitle(String title) {
+        return candidates(titles, title);
+    }
+
+    /**
+     * Отмечает начало записи, которая может изменить имя или титул игроков.
+     * До вызова {@link #endWrite()} индекс не сужает поиск
+     */
+    public void beginWrite() {
+        pendingWrites.incrementAndGet();
+    }
+
+    /**
+     * Отмечает окончание записи после того, как индекс получил уведомление о ней
+     */
+    public void endWrite() {
+        pendingWrites.decrementAndGet();
+    }
+
+    @Override
+    public void playerCreated(Player player) {
+        if (enabled && !add(player.getId(), player.getName(), player.getTitle()))
+            ready = false;
+    }
+
+    @Override
+    public void playerUpdated(Player oldPlayer, Player newPlayer) {
+        if (!enabled || !isIndexable(newPlayer.getId()))
+            return;
+
+        int id = newPlayer.getId().intValue();
+        if (oldPlayer == null) {
+            // прежние триграммы остаются в индексе, лишние кандидаты отсеет проверка LIKE в базе данных
+            names.add(id, newPlayer.getName());
+            titles.add(id, newPlayer.getTitle());
+            return;
+        }
+
+        if (!Objects.equals(oldPlayer.getName(), newPlayer.getName())) {
+            names.remove(id, oldPlayer.getName());
+            names.add(id, newPlayer.getName());
+        }
+        if (!Objects.equals(oldPlayer.getTitle(), newPlayer.getTitle())) {
+            titles.remove(id, oldPlayer.getTitle());
+            titles.add(id, newPlayer.getTitle());
+        }
+    }
+
+    @Override
+    public void playerDeleted(Player player) {
+        if (!enabled || !isIndexable(player.getId()))
+            return;
+
+        names.remove(player.getId().intValue(), player.getName());
+        titles.remove(player.getId().intValue(), player.getTitle());
+    }
+
+    @Override
+    public void playersReloaded() {
+        rebuild();
+    }
+
+    /**
+     * @return <code>false</code>, если id не помещается в индекс и индекс больше не может сужать поиск
+     */
+    private boolean add(Long id, String name, String title) {
+        if (!isIndexable(id))
+            return false;
+
+        names.add(id.intValue(), name);
+        titles.add(id.intValue(), title);
+        return true;
+    }
+
+    private int[] candidates(TrigramIndex index, String query) {
+        if (!enabled || !ready || pendingWrites.get() > 0 || query == null)
+            return null;
+
+        // символы шаблона LIKE не могут быть проверены по триграммам
+        if (query.indexOf('%') >= 0 || query.indexOf('_') >= 0 || query.indexOf('\\') >= 0)
+            return null;
+
+        int[] candidates = index.candidates(query);
+        if (candidates != null && candidates.length > maxCandidates)
+            return null;
+        return candidates;
+    }
+
+    private static boolean isIndexable(Long id) {
+        return id != null && id > 0 && id <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,207 @@
+package com.game.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс триграмм для поиска подстроки.
+ * Каждой триграмме соответствует отсортированный массив id строк, в которых она встречается.
+ * Поиск возвращает надмножество подходящих id, точную проверку выполняет база данных
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет строку в индекс
+     *
+     * @param id id строки
+     * @param text текст
+     */
+    public void add(int id, String text) {
+        long[] grams = grams(text);
+        if (grams.length == 0)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            for (long gram : grams)
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет строку из индекса
+     *
+     * @param id id строки
+     * @param text текст, с которым строка была добавлена
+     */
+    public void remove(int id, String text) {
+        long[] grams = grams(text);
+        if (grams.length == 0)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            for (long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list != null && list.remove(id) && list.size == 0)
+                    postings.remove(gram);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все строки из индекса
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает id строк, которые могут содержать подстроку
+     *
+     * @param query подстрока
+     * @return отсортированные id либо <code>null</code>, если подстрока короче триграммы
+     */
+    public int[] candidates(String query) {
+        long[] grams = grams(query);
+        if (grams.length == 0)
+            return null;
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null)
+                    return new int[0];
+            }
+
+            // пересечение начинается с самого короткого списка
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int size = result.length;
+            for (int i = 1; i < lists.length && size > 0; i++)
+                size = intersect(result, size, lists[i]);
+
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приводит текст к виду, в котором сравнивает строки база данных:
+     * без учета регистра и диакритических знаков
+     *
+     * @param text текст
+     * @return нормализованный текст
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] grams(String text) {
+        if (text == null || text.length() < GRAM)
+            return new long[0];
+
+        String value = normalize(text);
+        if (value.length() < GRAM)
+            return new long[0];
+
+        long[] grams = new long[value.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++)
+            grams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+
+        Arrays.sort(grams);
+        int unique = 0;
+        for (int i = 0; i < grams.length; i++)
+            if (i == 0 || grams[i] != grams[i - 1])
+                grams[unique++] = grams[i];
+
+        return Arrays.copyOf(grams, unique);
+    }
+
+    private static int intersect(int[] result, int size, PostingList list) {
+        int matched = 0;
+        int from = 0;
+        for (int i = 0; i < size; i++) {
+            int position = Arrays.binarySearch(list.ids, from, list.size, result[i]);
+            if (position >= 0) {
+                result[matched++] = result[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Отсортированный список id без повторов
+     */
+    private static class PostingList {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0)
+                return;
+
+            position = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0)
+                return false;
+
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size > 0 && size < ids.length / 4)
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.game.service;
+
+import com.game.entity.Player;
+
+/**
+ * Получатель изменений игроков, выполненных через {@link PlayerService}.
+ * Используется для поддержания структур в памяти, построенных по таблице игроков.
+ * Получатели вызываются в порядке {@link org.springframework.core.annotation.Order}
+ */
+public interface PlayerChangeListener {
+
+    /**
+     * Порядок получателей, поддерживающих структуры в памяти
+     */
+    int STRUCTURE_ORDER = 0;
+
+    /**
+     * Порядок кэша запросов. Он вызывается после всех структур в памяти, иначе запрос нового поколения
+     * может прочитать еще не обновленные структуры и закэшировать устаревший результат
+     */
+    int QUERY_CACHE_ORDER = STRUCTURE_ORDER + 100;
+
+    /**
+     * Игрок создан
+     *
+     * @param player созданный игрок
+     */
+    default void playerCreated(Player player) {
+    }
+
+    /**
+     * Игрок изменен
+     *
+     * @param oldPlayer игрок до изменения либо <code>null</code>, если прежние значения не читались
+     * @param newPlayer игрок после изменения
+     */
+    default void playerUpdated(Player oldPlayer, Player newPlayer) {
+    }
+
+    /**
+     * Игрок удален
+     *
+     * @param player удаленный игрок
+     */
+    default void playerDeleted(Player player) {
+    }
+
+    /**
+     * Таблица игроков изменена целиком либо способом, при котором отдельные изменения неизвестны
+     */
+    default void playersReloaded() {
+    }
+}
@@ -1,23 +1,55 @@
 package com.game.service;
 
+import com.game.dto.PlayerBulkResult;
+import com.game.dto.PlayerChangeSet;
+import com.game.dto.PlayerCursor;
+import com.game.dto.PlayerFields;
+import com.game.dto.PlayerFilter;
+import com.game.dto.PlayerSearchResult;
 import com.game.entity.Player;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PlayerService {
 
     Player createPlayer(Player player);
 
+    PlayerBulkResult createPlayers(List<Player> players);
+
     Player getPlayerById(Long id);
 
-    Page<Player> getAllPlayers(Specification<Player> specification, Pageable pageable);
+    Slice<Player> getAllPlayers(PlayerFilter filter, Pageable pageable);
+
+    Slice<Map<String, Object>> getAllPlayers(PlayerFilter filter, Pageable pageable, PlayerFields fields);
+
+    Slice<Player> getAllPlayersAfter(PlayerFilter filter, String field, PlayerCursor cursor, int pageSize);
+
+    Long getPlayersCount(PlayerFilter filter);
+
+    String getPlayersTag();
+
+    PlayerSearchResult searchPlayers(PlayerFilter filter, Pageable pageable);
 
-    Long getPlayersCount(Specification<Player> specification);
+    void exportPlayers(PlayerFilter filter, Sort sort, Consumer<Player> action);
+
+    void exportPlayers(PlayerFilter filter, Sort sort, PlayerFields fields, Consumer<Map<String, Object>> action);
 
     Player updatePlayer(Long id, Player oldPlayer) throws IllegalArgumentException;
 
+    Player updatePlayer(Long id, Player newPlayer, Long expectedVersion);
+
+    Player patchPlayer(Long id, Player changes, Long expectedVersion);
+
+    int updatePlayers(PlayerFilter filter, PlayerChangeSet changes);
+
     Player deletePlayer(Long id);
+
+    Player deletePlayer(Long id, Long expectedVersion);
+
+    int deletePlayers(List<Long> ids);
 }
@@ -1,19 +1,50 @@
 package com.game.service;
 
+import com.game.cache.PlayerCache;
+import com.game.cache.QueryCache;
+import com.game.columnar.ColumnarPlayerEngine;
+import com.game.dto.PlayerBulkResult;
+import com.game.dto.PlayerChangeSet;
+import com.game.dto.PlayerCursor;
+import com.game.dto.PlayerFields;
+import com.game.dto.PlayerFilter;
+import com.game.dto.PlayerSearchResult;
 import com.game.entity.Player;
 import com.game.entity.Profession;
 import com.game.entity.Race;
 import com.game.exception.BadRequestException;
+import com.game.exception.ConflictException;
 import com.game.exception.NotFoundException;
 import com.game.repository.PlayerRepository;
+import com.game.search.PlayerTextIndex;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class PlayerServiceImpl implements PlayerService{
@@ -23,12 +54,57 @@ public class PlayerServiceImpl implements PlayerService{
     private static final int MAX_EXPERIENCE = 10000000;
     private static final int MIN_BIRTHDAY = 2000;
     private static final int MAX_BIRTHDAY = 3000;
+    private static final long STARTED_AT = System.currentTimeMillis();
 
     private PlayerRepository playerRepository;
 
+    private Executor queryExecutor;
+
+    private PlayerTextIndex textIndex;
+
+    private ColumnarPlayerEngine columnarEngine;
+
+    private PlayerCache playerCache;
+
+    private QueryCache queryCache;
+
+    private List<PlayerChangeListener> listeners;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private int batchSize;
+
+    private int fetchSize;
+
+    private int maxBulkSize;
+
     @Autowired
-    public PlayerServiceImpl(PlayerRepository playerRepository) {
+    public PlayerServiceImpl(PlayerRepository playerRepository,
+                             @Qualifier("queryExecutor") Executor queryExecutor,
+                             PlayerTextIndex textIndex,
+                             ColumnarPlayerEngine columnarEngine,
+                             PlayerCache playerCache,
+                             QueryCache queryCache,
+                             List<PlayerChangeListener> listeners,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bulk.batch-size:500}") int batchSize,
+                             @Value("${bulk.max-size:10000}") int maxBulkSize,
+                             @Value("${export.fetch-size:1000}") int fetchSize) {
         this.playerRepository = playerRepository;
+        this.queryExecutor = queryExecutor;
+        this.textIndex = textIndex;
+        this.columnarEngine = columnarEngine;
+        this.playerCache = playerCache;
+        this.queryCache = queryCache;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.maxBulkSize = maxBulkSize;
+        this.fetchSize = fetchSize;
     }
 
     /**
@@ -47,11 +123,61 @@ public class PlayerServiceImpl implements PlayerService{
         player.setLevel(getCurrentLevel(player.getExperience()));
         player.setUntilNextLevel(getExperienceUntilNextLevel(player.getExperience(), player.getLevel()));
 
-        return playerRepository.save(player);
+        return writingText(true, () -> {
+            Player created = playerRepository.save(player);
+            listeners.forEach(listener -> listener.playerCreated(created));
+            return created;
+        });
     }
 
     /**
-     * Получение игрока по id
+     * Создает игроков одной транзакцией, вставляя их пакетами JDBC.
+     * Игроки, не прошедшие проверку, не создаются и возвращаются с причиной отказа
+     *
+     * @param players игроки в порядке запроса
+     * @return результат по каждому игроку
+     */
+    @Override
+    public PlayerBulkResult createPlayers(List<Player> players) {
+        if (players == null || players.isEmpty() || players.size() > maxBulkSize)
+            throw new BadRequestException("Invalid players count");
+
+        List<PlayerBulkResult.Item> items = new ArrayList<>(players.size());
+        List<Player> valid = new ArrayList<>(players.size());
+        for (Player player : players) {
+            try {
+                isPlayerValid(player);
+            } catch (BadRequestException e) {
+                items.add(PlayerBulkResult.Item.rejected(items.size(), e.getMessage()));
+                continue;
+            }
+
+            if (player.getBanned() == null)
+                player.setBanned(false);
+            player.setLevel(getCurrentLevel(player.getExperience()));
+            player.setUntilNextLevel(getExperienceUntilNextLevel(player.getExperience(), player.getLevel()));
+            valid.add(player);
+            items.add(null);
+        }
+
+        if (!valid.isEmpty()) {
+            writingText(true, () -> {
+                transactionTemplate.executeWithoutResult(status -> playerRepository.insertAll(valid, batchSize));
+                valid.forEach(player -> listeners.forEach(listener -> listener.playerCreated(player)));
+                return null;
+            });
+        }
+
+        int next = 0;
+        for (int i = 0; i < items.size(); i++)
+            if (items.get(i) == null)
+                items.set(i, PlayerBulkResult.Item.created(i, valid.get(next++).getId()));
+        return new PlayerBulkResult(items);
+    }
+
+    /**
+     * Получение игрока по id.
+     * Игрок читается из кэша, при промахе загружается из базы данных
      *
      * @param id
      * @return объект игрока
@@ -59,31 +185,156 @@ public class PlayerServiceImpl implements PlayerService{
     @Override
     public Player getPlayerById(Long id) {
         isIdValid(id);
-        return playerRepository.findById(id).orElseThrow(() ->
+        return playerCache.get(id, () -> playerRepository.findById(id)).orElseThrow(() ->
                 new NotFoundException("Player not found!"));
     }
 
     /**
-     * Отображает страницу игроков согласно фильтрам
+     * Отображает страницу игроков согласно фильтрам.
+     * Общее количество игроков не подсчитывается.
+     * Результат берется из кэша запросов, при промахе запрос выполняется
+     * по копии таблицы в памяти, если она может на него ответить
+     *
+     * @param filter
+     * @param pageable
+     * @return срез игроков
+     */
+    @Override
+    public Slice<Player> getAllPlayers(PlayerFilter filter, Pageable pageable) {
+        return queryCache.getSlice(filter, pageable, () -> {
+            Slice<Player> players = columnarEngine.findSlice(filter, pageable);
+            if (players != null)
+                return players;
+
+            return playerRepository.findSlice(getSpecification(filter), pageable);
+        });
+    }
+
+    /**
+     * Отображает страницу игроков, выбирая из базы данных только заданные поля.
+     * Сущности не создаются, кэш запросов и копия таблицы в памяти не используются
      *
-     * @param specification
+     * @param filter
      * @param pageable
-     * @return страницу игроков
+     * @param fields выбираемые поля
+     * @return срез строк с выбранными полями
+     */
+    @Override
+    public Slice<Map<String, Object>> getAllPlayers(PlayerFilter filter, Pageable pageable, PlayerFields fields) {
+        final Specification<Player> specification = getSpecification(filter);
+        return readOnlyTransactionTemplate.execute(status ->
+                playerRepository.findSlice(specification, pageable, fields));
+    }
+
+    /**
+     * Отображает страницу игроков, следующих за позицией <code>cursor</code>.
+     * Игроки упорядочены по полю <code>field</code>, затем по id, поэтому
+     * стоимость запроса не зависит от номера страницы
+     *
+     * @param filter
+     * @param field поле сортировки
+     * @param cursor позиция последнего выданного игрока либо <code>null</code> для первой страницы
+     * @param pageSize
+     * @return срез игроков
+     */
+    @Override
+    public Slice<Player> getAllPlayersAfter(PlayerFilter filter, String field, PlayerCursor cursor, int pageSize) {
+        if (cursor != null && !cursor.getField().equals(field))
+            throw new BadRequestException("Cursor does not match order");
+
+        Sort sort = "id".equals(field) ? Sort.by("id") : Sort.by(field).and(Sort.by("id"));
+        return playerRepository.findSlice(
+                getSpecification(filter).and(findAllAfter(cursor)), PageRequest.of(0, pageSize, sort));
+    }
+
+    /**
+     * Возвращает метку состояния таблицы игроков для заголовка <code>ETag</code>.
+     * Метка меняется при каждом изменении игроков и при перезапуске приложения
+     *
+     * @return метка состояния
      */
     @Override
-    public Page<Player> getAllPlayers(Specification<Player> specification, Pageable pageable) {
-        return playerRepository.findAll(specification, pageable);
+    public String getPlayersTag() {
+        return STARTED_AT + "-" + queryCache.getGeneration();
     }
 
     /**
-     * Возвращает количество игроков согласной фильтров
+     * Возвращает количество игроков согласной фильтров.
+     * Результат берется из кэша запросов, при промахе запрос выполняется
+     * по копии таблицы в памяти, если она может на него ответить
      *
-     * @param specification
+     * @param filter
      * @return количество игроков
      */
     @Override
-    public Long getPlayersCount(Specification<Player> specification) {
-        return playerRepository.count(specification);
+    public Long getPlayersCount(PlayerFilter filter) {
+        return queryCache.getCount(filter, () -> {
+            Long count = columnarEngine.count(filter);
+            if (count != null)
+                return count;
+
+            return playerRepository.count(getSpecification(filter));
+        });
+    }
+
+    /**
+     * Возвращает страницу игроков и их общее количество.
+     * Запросы страницы и количества к базе данных выполняются параллельно
+     *
+     * @param filter
+     * @param pageable
+     * @return страница игроков и количество игроков согласно фильтрам
+     */
+    @Override
+    public PlayerSearchResult searchPlayers(PlayerFilter filter, Pageable pageable) {
+        PlayerSearchResult result = columnarEngine.search(filter, pageable);
+        if (result != null)
+            return result;
+
+        final Specification<Player> specification = getSpecification(filter);
+
+        CompletableFuture<Long> count = CompletableFuture.supplyAsync(
+                () -> playerRepository.count(specification), queryExecutor);
+        Slice<Player> players = playerRepository.findSlice(specification, pageable);
+
+        try {
+            return new PlayerSearchResult(players.getContent(), count.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Передает всех игроков согласно фильтрам по одному по мере чтения из базы данных.
+     * Игроки не накапливаются в памяти, поэтому объем выгрузки не ограничен
+     *
+     * @param filter
+     * @param sort
+     * @param action обработка игрока
+     */
+    @Override
+    public void exportPlayers(PlayerFilter filter, Sort sort, Consumer<Player> action) {
+        final Specification<Player> specification = getSpecification(filter);
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+                playerRepository.forEach(specification, sort, fetchSize, action));
+    }
+
+    /**
+     * Передает строки с заданными полями игроков согласно фильтра, читая только эти столбцы
+     *
+     * @param filter
+     * @param sort
+     * @param fields выбираемые поля
+     * @param action обработка строки
+     */
+    @Override
+    public void exportPlayers(PlayerFilter filter, Sort sort, PlayerFields fields,
+                              Consumer<Map<String, Object>> action) {
+        final Specification<Player> specification = getSpecification(filter);
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+                playerRepository.forEach(specification, sort, fetchSize, fields, action));
     }
 
     /**
@@ -95,7 +346,33 @@ public class PlayerServiceImpl implements PlayerService{
      */
     @Override
     public Player updatePlayer(Long id, Player newPlayer) {
-        Player oldPlayer = getPlayerById(id);
+        return updatePlayer(id, newPlayer, null);
+    }
+
+    /**
+     * Изменяет значения полей игрока, если его версия совпадает с ожидаемой.
+     * Без ожидаемой версии игрок читается по первичному ключу, а не из кэша:
+     * устаревшая копия в кэше приводила бы к конфликту версий при записи
+     *
+     * @param id
+     * @param newPlayer объект игрока с изменненными полями
+     * @param expectedVersion версия из заголовка <code>If-Match</code> либо <code>null</code>
+     * @return объект игрока
+     * @throws ConflictException если версия игрока не совпадает с ожидаемой
+     */
+    @Override
+    public Player updatePlayer(Long id, Player newPlayer, Long expectedVersion) {
+        isIdValid(id);
+        Player oldPlayer = expectedVersion == null
+                ? playerRepository.findById(id).orElseThrow(() -> new NotFoundException("Player not found!"))
+                : getPlayerById(id);
+        if (expectedVersion != null) {
+            if (!expectedVersion.equals(oldPlayer.getVersion()))
+                throw new ConflictException("Player was modified");
+            // версия проверяется и при записи, если игрок изменился после чтения из кэша
+            oldPlayer.setVersion(expectedVersion);
+        }
+        final Player previous = new Player(oldPlayer);
 
         final String name = newPlayer.getName();
         if (name != null) {
@@ -140,22 +417,212 @@ public class PlayerServiceImpl implements PlayerService{
         oldPlayer.setLevel(getCurrentLevel(oldPlayer.getExperience()));
         oldPlayer.setUntilNextLevel(getExperienceUntilNextLevel(oldPlayer.getExperience(), oldPlayer.getLevel()));
 
-        return playerRepository.saveAndFlush(oldPlayer);
+        return writingText(newPlayer.getName() != null || newPlayer.getTitle() != null, () -> {
+            final Player updated;
+            try {
+                updated = playerRepository.saveAndFlush(oldPlayer);
+            } catch (OptimisticLockingFailureException e) {
+                throw new ConflictException("Player was modified");
+            }
+            listeners.forEach(listener -> listener.playerUpdated(previous, updated));
+            return updated;
+        });
+    }
+
+    /**
+     * Изменяет только заданные поля игрока одним выражением UPDATE.
+     * Уровень и опыт до следующего уровня вычисляются по новому опыту в том же выражении.
+     * Прежний игрок не читается: получатели изменений получают только измененного игрока,
+     * который читается после записи для ответа
+     *
+     * @param id
+     * @param changes объект игрока, в котором заданы только изменяемые поля
+     * @param expectedVersion версия из заголовка <code>If-Match</code> либо <code>null</code>
+     * @return объект игрока
+     * @throws ConflictException если версия игрока не совпадает с ожидаемой
+     */
+    @Override
+    public Player patchPlayer(Long id, Player changes, Long expectedVersion) {
+        isIdValid(id);
+        if (changes == null)
+            throw new BadRequestException("Invalid player");
+
+        final Player patch = new Player(changes);
+        patch.setId(null);
+        patch.setLevel(null);
+        patch.setUntilNextLevel(null);
+        patch.setVersion(null);
+
+        if (patch.getName() != null)
+            isNameValid(patch.getName());
+        if (patch.getTitle() != null)
+            isTitleValid(patch.getTitle());
+        if (patch.getBirthday() != null)
+            isBirthdayValid(patch.getBirthday());
+        if (patch.getExperience() != null) {
+            isExperienceValid(patch.getExperience());
+            patch.setLevel(getCurrentLevel(patch.getExperience()));
+            patch.setUntilNextLevel(getExperienceUntilNextLevel(patch.getExperience(), patch.getLevel()));
+        }
+
+        if (isEmptyPatch(patch)) {
+            Player player = getPlayerById(id);
+            if (expectedVersion != null && !expectedVersion.equals(player.getVersion()))
+                throw new ConflictException("Player was modified");
+            return player;
+        }
+
+        return writingText(patch.getName() != null || patch.getTitle() != null, () -> {
+            Integer patched = transactionTemplate.execute(status -> playerRepository.patch(id, patch, expectedVersion));
+            if (patched == null || patched == 0) {
+                if (expectedVersion != null && playerRepository.existsById(id))
+                    throw new ConflictException("Player was modified");
+                throw new NotFoundException("Player not found!");
+            }
+
+            final Player updated = playerRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Player not found!"));
+            listeners.forEach(listener -> listener.playerUpdated(null, updated));
+            return updated;
+        });
+    }
+
+    private static boolean isEmptyPatch(Player patch) {
+        return patch.getName() == null && patch.getTitle() == null && patch.getRace() == null
+                && patch.getProfession() == null && patch.getBirthday() == null && patch.getBanned() == null
+                && patch.getExperience() == null;
+    }
+
+    /**
+     * Изменяет всех игроков по фильтру одним выражением UPDATE.
+     * Уровень и опыт до следующего уровня пересчитываются в базе данных,
+     * опыт после изменения ограничивается допустимыми значениями.
+     * Затронутые строки не читаются, поэтому после изменения структуры в памяти строятся заново
+     *
+     * @param filter фильтры
+     * @param changes изменения: banned, experienceDelta, title
+     * @return количество измененных игроков
+     */
+    @Override
+    public int updatePlayers(PlayerFilter filter, PlayerChangeSet changes) {
+        if (changes == null || changes.isEmpty())
+            throw new BadRequestException("Invalid changes");
+
+        if (changes.getTitle() != null)
+            isTitleValid(changes.getTitle());
+
+        final Specification<Player> specification = getSpecification(filter);
+        return writingText(changes.getTitle() != null, () -> {
+            Integer updated = transactionTemplate.execute(status ->
+                    playerRepository.updateAll(specification, changes, MAX_EXPERIENCE));
+
+            // измененные строки неизвестны, структуры в памяти строятся заново
+            if (updated != null && updated > 0)
+                reload();
+            return updated == null ? 0 : updated;
+        });
     }
 
     /**
-     * Удаляет игрока
+     * Выполняет запись вместе с уведомлением получателей изменений.
+     * Если запись может изменить имя или титул, индекс триграмм на это время не сужает поиск:
+     * измененная строка видна в базе данных раньше, чем индекс узнает о ней из уведомления
+     *
+     * @param changesText запись может изменить имя или титул
+     * @param write запись и уведомление
+     * @return результат записи
+     */
+    private <T> T writingText(boolean changesText, Supplier<T> write) {
+        if (!changesText)
+            return write.get();
+
+        textIndex.beginWrite();
+        try {
+            return write.get();
+        } finally {
+            textIndex.endWrite();
+        }
+    }
+
+    /**
+     * Удаляет игрока выражением DELETE.
+     * Удаляемый игрок читается по первичному ключу с блокировкой строки в той же транзакции,
+     * кэш для этого не используется, так как его копия может быть устаревшей
      *
      * @param id
      * @return объект игрока
      */
     @Override
     public Player deletePlayer(Long id) {
-        Player player = getPlayerById(id);
-        playerRepository.delete(player);
+        return deletePlayer(id, null);
+    }
+
+    /**
+     * Удаляет игрока, если его версия совпадает с ожидаемой
+     *
+     * @param id
+     * @param expectedVersion версия из заголовка <code>If-Match</code> либо <code>null</code>
+     * @return объект игрока
+     * @throws ConflictException если версия игрока не совпадает с ожидаемой
+     */
+    @Override
+    public Player deletePlayer(Long id, Long expectedVersion) {
+        isIdValid(id);
+        final Player player = transactionTemplate.execute(status -> {
+            Player current = playerRepository.findAllForUpdate(
+                    (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id))
+                    .stream().findFirst().orElseThrow(() -> new NotFoundException("Player not found!"));
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion()))
+                throw new ConflictException("Player was modified");
+            playerRepository.delete(id, expectedVersion);
+            return current;
+        });
+
+        listeners.forEach(listener -> listener.playerDeleted(player));
         return player;
     }
 
+    /**
+     * Удаляет игроков по списку id одним выражением <code>DELETE ... WHERE id IN (...)</code>.
+     * Отсутствующие id пропускаются. Удаляемые строки блокируются и читаются в той же транзакции,
+     * чтобы передать их получателям изменений
+     *
+     * @param ids id игроков
+     * @return количество удаленных игроков
+     */
+    @Override
+    public int deletePlayers(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > maxBulkSize)
+            throw new BadRequestException("Invalid ids count");
+        ids.forEach(this::isIdValid);
+
+        final Set<Long> unique = new LinkedHashSet<>(ids);
+        List<Player> deleted = transactionTemplate.execute(status -> {
+            List<Player> players = playerRepository.findAllForUpdate(
+                    (root, query, criteriaBuilder) -> root.get("id").in(unique));
+            if (!players.isEmpty())
+                playerRepository.deleteAll(unique);
+            return players;
+        });
+
+        deleted.forEach(player -> listeners.forEach(listener -> listener.playerDeleted(player)));
+        return deleted.size();
+    }
+
+    /**
+     * Наибольшее число игроков в одной пакетной операции
+     */
+    public int getMaxBulkSize() {
+        return maxBulkSize;
+    }
+
+    /**
+     * Перестраивает структуры в памяти после изменения таблицы игроков в обход сервиса
+     */
+    public void reload() {
+        listeners.forEach(PlayerChangeListener::playersReloaded);
+    }
+
     /**
      * Проверка правильности данных игрока
      *
@@ -289,6 +756,57 @@ public class PlayerServiceImpl implements PlayerService{
         return 50 * (level + 1) * (level + 2) - experience;
     }
 
+    /**
+     * Спецификация объекта игрока по всем фильтрам
+     *
+     * @param filter фильтры
+     * @return спецификация объекта игрока
+     */
+    public Specification<Player> getSpecification(PlayerFilter filter) {
+        return Specification.where(findAllByNameLike(filter.getName()))
+                .and(findAllByTitleLike(filter.getTitle()))
+                .and(findAllByRaceLike(filter.getRace()))
+                .and(findAllByProfessionLike(filter.getProfession()))
+                .and(findAllByBirtdayLike(filter.getAfter(), filter.getBefore()))
+                .and(findAllByBannedLike(filter.getBanned()))
+                .and(findAllByExperienceLike(filter.getMinExperience(), filter.getMaxExperience()))
+                .and(findAllByLevelLike(filter.getMinLevel(), filter.getMaxLevel()));
+    }
+
+    /**
+     * Спецификация игроков, следующих за позицией в списке:
+     * <code>(key, id) &gt; (lastKey, lastId)</code>
+     *
+     * @param cursor позиция последнего выданного игрока
+     * @return спецификация объекта игрока
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<Player> findAllAfter(PlayerCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null)
+                return null;
+
+            Path<Long> id = root.get("id");
+            if ("id".equals(cursor.getField()))
+                return criteriaBuilder.greaterThan(id, cursor.getId());
+
+            // NULL сортируется первым, за ним идут все непустые значения
+            Path key = root.get(cursor.getField());
+            if (cursor.getKey() == null)
+                return criteriaBuilder.or(
+                        criteriaBuilder.isNotNull(key),
+                        criteriaBuilder.and(criteriaBuilder.isNull(key), criteriaBuilder.greaterThan(id, cursor.getId())));
+
+            // избыточное условие key >= lastKey позволяет использовать индекс (key, id) для диапазона
+            Comparable last = (Comparable) cursor.getKey();
+            return criteriaBuilder.and(
+                    criteriaBuilder.greaterThanOrEqualTo(key, last),
+                    criteriaBuilder.or(
+                            criteriaBuilder.greaterThan(key, last),
+                            criteriaBuilder.and(criteriaBuilder.equal(key, last), criteriaBuilder.greaterThan(id, cursor.getId()))));
+        };
+    }
+
     /**
      * Спецификация объекта игрока по фильтру имени
      *
@@ -296,8 +814,13 @@ public class PlayerServiceImpl implements PlayerService{
      * @return спецификация объекта игрока
      */
     public Specification<Player> findAllByNameLike(String name) {
-        return (root, query, criteriaBuilder) ->
-                name == null ? null : criteriaBuilder.like(root.get("name"), "%" + name + "%");
+        return (root, query, criteriaBuilder) -> {
+            if (name == null)
+                return null;
+
+            Predicate like = criteriaBuilder.like(root.get("name"), "%" + name + "%");
+            return withCandidates(root.get("id"), textIndex.findByName(name), like, criteriaBuilder);
+        };
     }
 
     /**
@@ -307,8 +830,36 @@ public class PlayerServiceImpl implements PlayerService{
      * @return спецификация объекта игрока
      */
     public Specification<Player> findAllByTitleLike(String title) {
-        return (root, query, criteriaBuilder) ->
-                title == null ? null : criteriaBuilder.like(root.get("title"), "%" + title + "%");
+        return (root, query, criteriaBuilder) -> {
+            if (title == null)
+                return null;
+
+            Predicate like = criteriaBuilder.like(root.get("title"), "%" + title + "%");
+            return withCandidates(root.get("id"), textIndex.findByTitle(title), like, criteriaBuilder);
+        };
+    }
+
+    /**
+     * Ограничивает условие <code>LIKE</code> игроками, найденными по индексу триграмм
+     *
+     * @param id путь к id игрока
+     * @param candidates id игроков из индекса либо <code>null</code>, если индекс не сужает поиск
+     * @param like условие поиска подстроки
+     * @param criteriaBuilder
+     * @return условие поиска
+     */
+    private Predicate withCandidates(Path<Long> id, int[] candidates, Predicate like,
+                                     CriteriaBuilder criteriaBuilder) {
+        if (candidates == null)
+            return like;
+
+        if (candidates.length == 0)
+            return criteriaBuilder.disjunction();
+
+        List<Long> ids = new ArrayList<>(candidates.length);
+        for (int candidate : candidates)
+            ids.add((long) candidate);
+        return criteriaBuilder.and(id.in(ids), like);
     }
 
     /**
@@ -0,0 +1,426 @@
+package com.game.stats;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.repository.PlayerRepository;
+import com.game.service.PlayerChangeListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Сводная статистика игроков в памяти: количество и суммарный опыт по расе, профессии и признаку бана,
+ * распределение по уровням. Строится при запуске, затем изменяется по событиям сервиса
+ * и периодически сверяется с базой данных, чтобы исправить расхождения.
+ * Если статистика отключена, каждый запрос считается группировкой в базе данных
+ */
+@Component
+@Order(PlayerChangeListener.STRUCTURE_ORDER)
+public class PlayerStats implements PlayerChangeListener, InitializingBean, DisposableBean {
+
+    private static final Race[] RACES = Race.values();
+    private static final Profession[] PROFESSIONS = Profession.values();
+
+    /**
+     * Число корзин уровней. Опыт не больше 10 000 000, поэтому уровень не больше 446,
+     * более высокие уровни попадают в последнюю корзину
+     */
+    private static final int LEVELS = 512;
+
+    /**
+     * Число групп: раса × профессия × признак бана
+     */
+    private static final int GROUPS = RACES.length * PROFESSIONS.length * 2;
+
+    /**
+     * Задержка повторной сверки, отложенной из-за изменений во время чтения базы данных
+     */
+    private static final long RETRY_DELAY_SECONDS = 1;
+
+    private final LongAdder[] counts = adders(GROUPS);
+    private final LongAdder[] experience = adders(GROUPS);
+    private final LongAdder[] levels = adders(LEVELS);
+
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+    private volatile long reconciledAt;
+
+    /**
+     * Изменения счетчиков по событиям берут блокировку на чтение и выполняются параллельно,
+     * исправление при сверке берет блокировку на запись, чтобы проверка и исправление не разделялись изменением
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final PlayerRepository playerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long reconcileIntervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public PlayerStats(PlayerRepository playerRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${stats.enabled:true}") boolean enabled,
+                       @Value("${stats.reconcile-interval-seconds:300}") long reconcileIntervalSeconds) {
+        this.playerRepository = playerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled)
+            return;
+
+        reconcile(true);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("player-stats-");
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        if (reconcileIntervalSeconds > 0)
+            scheduler.scheduleWithFixedDelay(() -> reconcile(false),
+                    reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+    }
+
+    /**
+     * Возвращает текущую статистику
+     *
+     * @return статистика по группам и уровням
+     */
+    public Stats snapshot() {
+        if (!enabled) {
+            Counts db = load();
+            return stats(db.counts, db.experience, db.levels, 0);
+        }
+
+        return stats(sums(counts), sums(experience), sums(levels), reconciledAt);
+    }
+
+    /**
+     * Сверяет счетчики с базой данных и исправляет расхождения.
+     * Если во время чтения базы данных игроки изменились, сверка откладывается до следующего раза,
+     * чтобы не исправить счетчики по устаревшим данным. Запрошенная событием сверка при этом повторяется <p>
+     * Сверка не точна: событие изменения, зафиксированного до чтения базы данных, может прийти
+     * уже после проверки и будет учтено дважды. Расхождение ограничено изменениями, события которых
+     * еще не дошли до статистики в момент сверки, и исправляется следующей сверкой
+     *
+     * @param force исправить счетчики, даже если игроки изменились во время чтения
+     * @return счетчики сверены
+     */
+    public synchronized boolean reconcile(boolean force) {
+        if (!enabled)
+            return false;
+
+        boolean requested = reconcileRequested.getAndSet(false);
+        long before = changes.sum();
+        Counts db = load();
+
+        lock.writeLock().lock();
+        try {
+            if (!force && changes.sum() != before) {
+                skipped.increment();
+                if (requested)
+                    requestReconcile(RETRY_DELAY_SECONDS);
+                return false;
+            }
+            corrections.add(correct(counts, db.counts) + correct(experience, db.experience)
+                    + correct(levels, db.levels));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reconciliations.increment();
+        reconciledAt = System.currentTimeMillis();
+        return true;
+    }
+
+    @Override
+    public void playerCreated(Player player) {
+        apply(player, 1);
+    }
+
+    @Override
+    public void playerUpdated(Player oldPlayer, Player newPlayer) {
+        if (oldPlayer == null) {
+            // прежние значения неизвестны, разница считается сверкой с базой данных
+            requestReconcile(0);
+            return;
+        }
+        apply(oldPlayer, -1);
+        apply(newPlayer, 1);
+    }
+
+    @Override
+    public void playerDeleted(Player player) {
+        apply(player, -1);
+    }
+
+    @Override
+    public void playersReloaded() {
+        reconcile(true);
+    }
+
+    private void apply(Player player, int sign) {
+        if (!enabled || player.getRace() == null || player.getProfession() == null)
+            return;
+
+        int cell = cell(player.getRace(), player.getProfession(), Boolean.TRUE.equals(player.getBanned()));
+        lock.readLock().lock();
+        try {
+            counts[cell].add(sign);
+            if (player.getExperience() != null)
+                experience[cell].add((long) sign * player.getExperience());
+            if (player.getLevel() != null)
+                levels[level(player.getLevel())].add(sign);
+            changes.increment();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void requestReconcile(long delaySeconds) {
+        if (enabled && scheduler != null && reconcileRequested.compareAndSet(false, true))
+            scheduler.schedule(() -> reconcile(false), delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private Counts load() {
+        return transactionTemplate.execute(status -> {
+            Counts db = new Counts();
+            for (Object[] row : playerRepository.countByRaceProfessionBanned()) {
+                if (row[0] == null || row[1] == null)
+                    continue;
+                int cell = cell((Race) row[0], (Profession) row[1], Boolean.TRUE.equals(row[2]));
+                db.counts[cell] += ((Number) row[3]).longValue();
+                db.experience[cell] += row[4] == null ? 0 : ((Number) row[4]).longValue();
+            }
+            for (Object[] row : playerRepository.countByLevel())
+                if (row[0] != null)
+                    db.levels[level(((Number) row[0]).intValue())] += ((Number) row[1]).longValue();
+            return db;
+        });
+    }
+
+    private static long correct(LongAdder[] adders, long[] expected) {
+        long drift = 0;
+        for (int i = 0; i < adders.length; i++) {
+            long delta = expected[i] - adders[i].sum();
+            if (delta != 0) {
+                adders[i].add(delta);
+                drift += Math.abs(delta);
+            }
+        }
+        return drift;
+    }
+
+    private Stats stats(long[] counts, long[] experience, long[] levels, long reconciledAt) {
+        long total = 0;
+        long banned = 0;
+        long totalExperience = 0;
+        List<Group> groups = new ArrayList<>();
+        for (Race race : RACES)
+            for (Profession profession : PROFESSIONS)
+                for (boolean isBanned : new boolean[]{false, true}) {
+                    int cell = cell(race, profession, isBanned);
+                    if (counts[cell] == 0)
+                        continue;
+                    groups.add(new Group(race, profession, isBanned, counts[cell], experience[cell]));
+                    total += counts[cell];
+                    banned += isBanned ? counts[cell] : 0;
+                    totalExperience += experience[cell];
+                }
+
+        List<LevelCount> levelCounts = new ArrayList<>();
+        for (int level = 0; level < levels.length; level++)
+            if (levels[level] != 0)
+                levelCounts.add(new LevelCount(level, levels[level]));
+
+        return new Stats(total, banned, totalExperience, groups, levelCounts,
+                reconciledAt, reconciliations.sum(), corrections.sum(), skipped.sum());
+    }
+
+    private static int cell(Race race, Profession profession, boolean banned) {
+        return (race.ordinal() * PROFESSIONS.length + profession.ordinal()) * 2 + (banned ? 1 : 0);
+    }
+
+    private static int level(int level) {
+        return Math.max(0, Math.min(level, LEVELS - 1));
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < sums.length; i++)
+            sums[i] = adders[i].sum();
+        return sums;
+    }
+
+    /**
+     * Значения счетчиков, прочитанные из базы данных
+     */
+    private static class Counts {
+        private final long[] counts = new long[GROUPS];
+        private final long[] experience = new long[GROUPS];
+        private final long[] levels = new long[LEVELS];
+    }
+
+    /**
+     * Сводная статистика на момент запроса
+     */
+    public static class Stats {
+
+        private final long total;
+        private final long banned;
+        private final long experience;
+        private final List<Group> groups;
+        private final List<LevelCount> levels;
+        private final long reconciledAt;
+        private final long reconciliations;
+        private final long corrections;
+        private final long skippedReconciliations;
+
+        private Stats(long total, long banned, long experience, List<Group> groups, List<LevelCount> levels,
+                      long reconciledAt, long reconciliations, long corrections, long skippedReconciliations) {
+            this.total = total;
+            this.banned = banned;
+            this.experience = experience;
+            this.groups = groups;
+            this.levels = levels;
+            this.reconciledAt = reconciledAt;
+            this.reconciliations = reconciliations;
+            this.corrections = corrections;
+            this.skippedReconciliations = skippedReconciliations;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getBanned() {
+            return banned;
+        }
+
+        public long getExperience() {
+            return experience;
+        }
+
+        public List<Group> getGroups() {
+            return groups;
+        }
+
+        public List<LevelCount> getLevels() {
+            return levels;
+        }
+
+        public long getReconciledAt() {
+            return reconciledAt;
+        }
+
+        public long getReconciliations() {
+            return reconciliations;
+        }
+
+        public long getCorrections() {
+            return corrections;
+        }
+
+        public long getSkippedReconciliations() {
+            return skippedReconciliations;
+        }
+    }
+
+    /**
+     * Количество и суммарный опыт игроков одной расы, профессии и признака бана
+     */
+    public static class Group {
+
+        private final Race race;
+        private final Profession profession;
+        private final boolean banned;
+        private final long count;
+        private final long experience;
+
+        private Group(Race race, Profession profession, boolean banned, long count, long experience) {
+            this.race = race;
+            this.profession = profession;
+            this.banned = banned;
+            this.count = count;
+            this.experience = experience;
+        }
+
+        public Race getRace() {
+            return race;
+        }
+
+        public Profession getProfession() {
+            return profession;
+        }
+
+        public boolean isBanned() {
+            return banned;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getExperience() {
+            return experience;
+        }
+    }
+
+    /**
+     * Количество игроков одного уровня
+     */
+    public static class LevelCount {
+
+        private final int level;
+        private final long count;
+
+        private LevelCount(int level, long count) {
+            this.level = level;
+            this.count = count;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.game.transfer;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Загрузка игроков из потока: ход выполнения и отчет об отклоненных записях
+ */
+public class ImportJob {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final long id;
+
+    private final PlayerFormat format;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final AtomicLong records = new AtomicLong();
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final transient Path rejects;
+
+    private volatile State state = State.RUNNING;
+
+    private volatile Long finishedAt;
+
+    private volatile String error;
+
+    ImportJob(long id, PlayerFormat format, Path rejects) {
+        this.id = id;
+        this.format = format;
+        this.rejects = rejects;
+    }
+
+    void recordRead() {
+        records.incrementAndGet();
+    }
+
+    void recordsCreated(long count) {
+        created.addAndGet(count);
+    }
+
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    void complete() {
+        finishedAt = System.currentTimeMillis();
+        state = State.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        state = State.FAILED;
+    }
+
+    Path getRejects() {
+        return rejects;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public PlayerFormat getFormat() {
+        return format;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Скорость загрузки с начала выполнения
+     *
+     * @return прочитанных записей в секунду
+     */
+    @JsonProperty("rowsPerSecond")
+    public double getRowsPerSecond() {
+        long finished = finishedAt == null ? System.currentTimeMillis() : finishedAt;
+        long elapsed = Math.max(1, finished - startedAt);
+        return records.get() * 1000.0 / elapsed;
+    }
+}
@@ -0,0 +1,116 @@
+package com.game.transfer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.game.dto.PlayerFields;
+import com.game.entity.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Потоковая запись и чтение игроков в форматах NDJSON и CSV.
+ * Игроки пишутся и читаются по одному, без построения всего документа в памяти
+ */
+@Component
+public class PlayerCodec {
+
+    /**
+     * Столбцы CSV в порядке полей игрока, дата рождения записывается в миллисекундах как в JSON
+     */
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("title")
+            .addColumn("race")
+            .addColumn("profession")
+            .addColumn("birthday")
+            .addColumn("banned")
+            .addColumn("experience")
+            .addColumn("level")
+            .addColumn("untilNextLevel")
+            .build()
+            .withHeader();
+
+    private final ObjectMapper jsonMapper;
+
+    private final CsvMapper csvMapper;
+
+    @Autowired
+    public PlayerCodec(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.csvMapper = new CsvMapper();
+        this.csvMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        this.csvMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        this.csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Открывает запись игроков в поток.
+     * Сброс в поток после каждого игрока отключен, данные отправляются по заполнении буфера
+     *
+     * @param format формат
+     * @param output поток
+     * @return запись последовательности игроков, которую нужно закрыть
+     */
+    public SequenceWriter writer(PlayerFormat format, OutputStream output) throws IOException {
+        if (format == PlayerFormat.CSV)
+            return csvMapper.writer(CSV_SCHEMA)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(output);
+
+        return jsonMapper.writerFor(Player.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValues(output);
+    }
+
+    /**
+     * Открывает запись строк с выбранными полями игроков в поток.
+     * Столбцы CSV совпадают с выбранными полями и идут в их порядке
+     *
+     * @param format формат
+     * @param fields выбранные поля
+     * @param output поток
+     * @return запись последовательности строк, которую нужно закрыть
+     */
+    public SequenceWriter writer(PlayerFormat format, PlayerFields fields, OutputStream output) throws IOException {
+        if (format == PlayerFormat.CSV) {
+            CsvSchema.Builder schema = CsvSchema.builder();
+            fields.getNames().forEach(schema::addColumn);
+            return csvMapper.writer(schema.build().withHeader())
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(output);
+        }
+
+        return jsonMapper.writerFor(Map.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValues(output);
+    }
+
+    /**
+     * Открывает чтение игроков из потока
+     *
+     * @param format формат
+     * @param input поток
+     * @return итератор игроков, который нужно закрыть
+     */
+    public MappingIterator<Player> reader(PlayerFormat format, InputStream input) throws IOException {
+        if (format == PlayerFormat.CSV)
+            return csvMapper.readerFor(Player.class).with(CSV_SCHEMA).readValues(input);
+
+        return jsonMapper.readerFor(Player.class).readValues(input);
+    }
+}
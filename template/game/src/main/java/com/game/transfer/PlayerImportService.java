@@ -0,0 +1,220 @@
+package com.game.transfer;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.game.dto.PlayerBulkResult;
+import com.game.entity.Player;
+import com.game.exception.NotFoundException;
+import com.game.service.PlayerService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Загрузка игроков из потока CSV или NDJSON.
+ * Записи читаются по одной, проверяются правилами {@link PlayerService}
+ * и сохраняются порциями, каждая порция в своей транзакции.
+ * Отклоненные записи пишутся во временный файл отчета
+ */
+@Service
+public class PlayerImportService implements DisposableBean {
+
+    private final PlayerService playerService;
+    private final PlayerCodec playerCodec;
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final int historySize;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Map<Long, ImportJob> jobs = new LinkedHashMap<>();
+
+    @Autowired
+    public PlayerImportService(PlayerService playerService,
+                               PlayerCodec playerCodec,
+                               ObjectMapper objectMapper,
+                               @Value("${import.chunk-size:1000}") int chunkSize,
+                               @Value("${import.history-size:20}") int historySize) {
+        this.playerService = playerService;
+        this.playerCodec = playerCodec;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.historySize = historySize;
+    }
+
+    /**
+     * Загружает игроков из потока.
+     * Пока загрузка выполняется, ее ход доступен через {@link #getJobs()}
+     *
+     * @param format формат потока
+     * @param input поток
+     * @return завершенная загрузка
+     */
+    public ImportJob importPlayers(PlayerFormat format, InputStream input) throws IOException {
+        long id = ids.incrementAndGet();
+        ImportJob job = new ImportJob(id, format, Files.createTempFile("players-import-" + id + "-", ".ndjson"));
+        register(job);
+
+        try (MappingIterator<Player> iterator = playerCodec.reader(format, input);
+             SequenceWriter rejects = objectMapper.writerFor(Reject.class)
+                     .withRootValueSeparator("\n")
+                     .writeValues(job.getRejects().toFile())) {
+
+            List<Player> chunk = new ArrayList<>(chunkSize);
+            List<Long> records = new ArrayList<>(chunkSize);
+            while (true) {
+                Player player;
+                try {
+                    if (!iterator.hasNextValue())
+                        break;
+                    player = iterator.nextValue();
+                } catch (JsonMappingException e) {
+                    // ошибка значения в записи, итератор переходит к следующей записи
+                    job.recordRead();
+                    job.recordRejected();
+                    rejects.write(new Reject(job.getRecords(), e.getOriginalMessage(), null));
+                    continue;
+                }
+
+                job.recordRead();
+                chunk.add(player);
+                records.add(job.getRecords());
+                if (chunk.size() == chunkSize)
+                    save(job, chunk, records, rejects);
+            }
+            save(job, chunk, records, rejects);
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        }
+        return job;
+    }
+
+    /**
+     * Возвращает последние загрузки, в том числе выполняющиеся
+     *
+     * @return загрузки в порядке начала
+     */
+    public List<ImportJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * Возвращает загрузку по id
+     *
+     * @param id
+     * @return загрузка
+     */
+    public ImportJob getJob(long id) {
+        synchronized (jobs) {
+            ImportJob job = jobs.get(id);
+            if (job == null)
+                throw new NotFoundException("Import not found!");
+            return job;
+        }
+    }
+
+    /**
+     * Копирует отчет об отклоненных записях в поток
+     *
+     * @param id id загрузки
+     * @param output поток
+     */
+    public void copyRejects(long id, OutputStream output) throws IOException {
+        Files.copy(getJob(id).getRejects(), output);
+    }
+
+    @Override
+    public void destroy() {
+        getJobs().forEach(PlayerImportService::deleteRejects);
+    }
+
+    private void save(ImportJob job, List<Player> chunk, List<Long> records, SequenceWriter rejects) throws IOException {
+        if (chunk.isEmpty())
+            return;
+
+        PlayerBulkResult result = playerService.createPlayers(chunk);
+        job.recordsCreated(result.getCreated());
+        for (PlayerBulkResult.Item item : result.getItems()) {
+            if (item.getError() == null)
+                continue;
+
+            job.recordRejected();
+            rejects.write(new Reject(records.get(item.getIndex()), item.getError(), chunk.get(item.getIndex())));
+        }
+
+        chunk.clear();
+        records.clear();
+    }
+
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<ImportJob> iterator = jobs.values().iterator();
+            while (jobs.size() > historySize && iterator.hasNext()) {
+                ImportJob oldest = iterator.next();
+                if (oldest.getState() == ImportJob.State.RUNNING)
+                    continue;
+                iterator.remove();
+                deleteRejects(oldest);
+            }
+        }
+    }
+
+    private static void deleteRejects(ImportJob job) {
+        try {
+            Files.deleteIfExists(job.getRejects());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Отклоненная запись: номер записи в потоке, причина и прочитанный игрок
+     */
+    public static class Reject {
+
+        private final long record;
+
+        private final String error;
+
+        private final Player player;
+
+        private Reject(long record, String error, Player player) {
+            this.record = record;
+            this.error = error;
+            this.player = player;
+        }
+
+        public long getRecord() {
+            return record;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Player getPlayer() {
+            return player;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Сортировки PlayerOrder и постраничный вывод по ключу: (поле сортировки, id)
+CREATE INDEX idx_player_name_id ON player (name, id);
+CREATE INDEX idx_player_experience_id ON player (experience, id);
+CREATE INDEX idx_player_birthday_id ON player (birthday, id);
+CREATE INDEX idx_player_level_id ON player (level, id);
+
+-- Фильтры по расе и профессии (вместе и по отдельности) с сортировкой по умолчанию
+CREATE INDEX idx_player_race_profession_id ON player (race, profession, id);
+CREATE INDEX idx_player_profession_id ON player (profession, id);
+
+-- Фильтр по бану с сортировкой по умолчанию
+CREATE INDEX idx_player_banned_id ON player (banned, id);
@@ -0,0 +1,3 @@
+-- Версия строки для оптимистической блокировки
+ALTER TABLE player
+    ADD COLUMN version BIGINT(20) NOT NULL DEFAULT 0;
@@ -0,0 +1,146 @@
+package com.game.columnar;
+
+import com.game.entity.Player;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerColumnsTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private final Random random = new Random(42);
+
+    //test1
+    @Test
+    public void selectMatchesFilterAfterChangesTest() {
+        PlayerColumns columns = new PlayerColumns(ZoneOffset.UTC);
+        TreeMap<Long, Player> players = new TreeMap<>();
+
+        // строки вставляются не по порядку id, часть удаляется с последующим уплотнением
+        for (int i = 0; i < 5000; i++) {
+            Player player = randomPlayer(1 + random.nextInt(4000));
+            players.put(player.getId(), player);
+            columns.upsert(player);
+        }
+        for (int i = 0; i < 2500; i++) {
+            long id = 1 + random.nextInt(4000);
+            assertEquals(players.remove(id) != null, columns.delete(id));
+        }
+        assertEquals(new ArrayList<>(players.keySet()), columns.ids());
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            PlayerColumns.Selection selection = new PlayerColumns.Selection();
+            selection.race = Race.ELF.ordinal();
+            selection.banned = false;
+            selection.minExperience = 1000;
+            selection.maxExperience = 500000;
+            selection.maxDay = 12000;
+
+            long[] mask = columns.select(selection, parallel);
+            List<Long> expected = players.values().stream()
+                    .filter(p -> p.getRace() == Race.ELF && !p.getBanned())
+                    .filter(p -> p.getExperience() >= 1000 && p.getExperience() <= 500000)
+                    .filter(p -> p.getBirthday().getTime() / DAY <= 12000)
+                    .map(Player::getId)
+                    .collect(Collectors.toList());
+
+            assertEquals(expected.size(), PlayerColumns.count(mask));
+            assertEquals(expected, ids(columns, columns.rowsById(mask, 0, expected.size())));
+            assertEquals(expected.subList(5, 15), ids(columns, columns.rowsById(mask, 5, 10)));
+        }
+    }
+
+    //test2
+    @Test
+    public void rowsByKeyOrderedByKeyThenIdTest() {
+        PlayerColumns columns = new PlayerColumns(ZoneOffset.UTC);
+        List<Player> players = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            Player player = randomPlayer(id);
+            player.setLevel(random.nextInt(20));
+            players.add(player);
+            columns.upsert(player);
+        }
+
+        long[] mask = columns.select(new PlayerColumns.Selection(), false);
+        List<Long> expected = players.stream()
+                .sorted(Comparator.comparing(Player::getLevel).thenComparing(Player::getId))
+                .map(Player::getId)
+                .collect(Collectors.toList());
+
+        // первая страница выбирается через кучу, дальняя через полную сортировку
+        assertEquals(expected.subList(10, 20),
+                ids(columns, columns.rowsByKey(mask, PlayerColumns.SortKey.LEVEL, 10, 10)));
+        assertEquals(expected.subList(2990, 3000),
+                ids(columns, columns.rowsByKey(mask, PlayerColumns.SortKey.LEVEL, 2990, 20)));
+    }
+
+    //test3
+    @Test
+    public void emptyValuesMakeColumnsIncompleteTest() {
+        PlayerColumns columns = new PlayerColumns(ZoneOffset.UTC);
+        Player player = randomPlayer(1);
+        columns.upsert(player);
+        assertTrue(columns.isComplete());
+
+        Player broken = new Player(player);
+        broken.setBirthday(null);
+        columns.upsert(broken);
+        assertFalse(columns.isComplete());
+
+        columns.upsert(player);
+        assertTrue(columns.isComplete());
+        assertEquals(player.getBirthday(), columns.toPlayer(0).getBirthday());
+    }
+
+    //test4
+    @Test
+    public void olderVersionIsIgnoredTest() {
+        PlayerColumns columns = new PlayerColumns(ZoneOffset.UTC);
+        Player newer = randomPlayer(1);
+        newer.setVersion(2L);
+        Player older = new Player(newer);
+        older.setVersion(1L);
+        older.setExperience(newer.getExperience() + 1);
+
+        assertTrue(columns.upsert(newer));
+        assertFalse(columns.upsert(older));
+        assertEquals(newer.getExperience(), columns.toPlayer(0).getExperience());
+        assertEquals(Long.valueOf(2), columns.toPlayer(0).getVersion());
+
+        // запоздавшее изменение не возвращает удаленного игрока
+        columns.delete(1);
+        assertFalse(columns.upsert(older));
+        assertEquals(0, columns.size());
+    }
+
+    private Player randomPlayer(long id) {
+        Player player = new Player("Игрок" + id, "Титул",
+                Race.values()[random.nextInt(Race.values().length)],
+                Profession.values()[random.nextInt(Profession.values().length)],
+                new Date((10950 + random.nextInt(2000)) * DAY),
+                random.nextBoolean(),
+                random.nextInt(1000000), 0, 0);
+        player.setId(id);
+        return player;
+    }
+
+    private static List<Long> ids(PlayerColumns columns, int[] rows) {
+        return Arrays.stream(rows).mapToObj(row -> columns.toPlayer(row).getId()).collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,11 @@
 package com.game.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.config.AppConfig;
 import com.game.config.MyWebAppInit;
 import com.game.config.WebConfig;
+import com.game.service.PlayerServiceImpl;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +16,16 @@ import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -33,6 +43,9 @@ public abstract class AbstractTest {
 
     @Before
     public void setup() {
+        // test.sql пересоздает таблицу игроков в обход сервиса
+        context.getBean(PlayerServiceImpl.class).reload();
+
         mockMvc = MockMvcBuilders
                 .webAppContextSetup(context)
                 .addFilter(((request, response, chain) -> {
@@ -41,4 +54,34 @@ public abstract class AbstractTest {
                 }))
                 .build();
     }
+
+    /**
+     * Выполняет запрос и, если обработчик выполняется асинхронно, дожидается его результата
+     */
+    ResultActions perform(RequestBuilder request) throws Exception {
+        return perform(mockMvc, request);
+    }
+
+    static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    /**
+     * Возвращает сводную статистику игроков
+     */
+    JsonNode getStats() throws Exception {
+        return getJson("/rest/players/stats");
+    }
+
+    /**
+     * Выполняет запрос GET и разбирает ответ как JSON
+     */
+    JsonNode getJson(String url) throws Exception {
+        String content = perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(content);
+    }
 }
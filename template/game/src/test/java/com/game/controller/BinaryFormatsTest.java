@@ -0,0 +1,79 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BinaryFormatsTest extends AbstractTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    //test1
+    @Test
+    public void getPlayerCborTest() throws Exception {
+        MockHttpServletResponse response = perform(get("/rest/players/1")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertTrue("Возвращается не CBOR при запросе GET /rest/players/{id}.",
+                response.getContentType().startsWith(MediaType.APPLICATION_CBOR_VALUE));
+        JsonNode player = cborMapper.readTree(response.getContentAsByteArray());
+        assertEquals("Возвращается не правильный игрок в формате CBOR.", "Ниус", player.get("name").asText());
+    }
+
+    //test2
+    @Test
+    public void getCountSmileTest() throws Exception {
+        byte[] content = perform(get("/rest/players/count")
+                .accept(PlayerRestController.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("Возвращается не правильное количество игроков в формате Smile.",
+                40L, smileMapper.readValue(content, Long.class));
+    }
+
+    //test3
+    @Test
+    public void createPlayerCborTest() throws Exception {
+        byte[] body = cborMapper.writeValueAsBytes(jsonMapper.readTree(TestsHelper.NORMAL_JSON));
+
+        byte[] content = perform(post("/rest/players/")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode player = cborMapper.readTree(content);
+        assertEquals("Не создается игрок из тела в формате CBOR.", "Амарылис", player.get("name").asText());
+        assertTrue("Не возвращается id игрока, созданного из тела в формате CBOR.", player.get("id").asLong() > 0);
+    }
+
+    //test4
+    @Test
+    public void getAllPlayersDefaultsToJsonTest() throws Exception {
+        String contentType = perform(get("/rest/players")
+                .header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentType();
+
+        assertTrue("Без запроса двоичного формата возвращается не JSON.",
+                contentType.startsWith(MediaType.APPLICATION_JSON_VALUE));
+    }
+}
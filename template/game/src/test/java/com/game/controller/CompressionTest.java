@@ -0,0 +1,114 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.filter.CompressionFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.util.AssertionErrors.assertNull;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private MockMvc compressingMockMvc;
+
+    @Before
+    public void setupFilters() {
+        compressingMockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(context.getBean(CompressionFilter.class), new ResourceUrlEncodingFilter())
+                .build();
+    }
+
+    //test1
+    @Test
+    public void gzipListTest() throws Exception {
+        MockHttpServletResponse response = perform(compressingMockMvc, get("/rest/players?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Не сжимается ответ GET /rest/players.", "gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        List<?> players = mapper.readValue(new GZIPInputStream(
+                new ByteArrayInputStream(response.getContentAsByteArray())), List.class);
+        assertEquals("Возвращается не правильное количество игроков в сжатом ответе.", 40, players.size());
+    }
+
+    //test2
+    @Test
+    public void deflateListTest() throws Exception {
+        MockHttpServletResponse response = perform(compressingMockMvc, get("/rest/players?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Не сжимается ответ GET /rest/players.", "deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        List<?> players = mapper.readValue(new InflaterInputStream(
+                new ByteArrayInputStream(response.getContentAsByteArray())), List.class);
+        assertEquals("Возвращается не правильное количество игроков в сжатом ответе.", 40, players.size());
+    }
+
+    //test3
+    @Test
+    public void smallResponseNotCompressedTest() throws Exception {
+        MockHttpServletResponse response = perform(compressingMockMvc, get("/rest/players/count")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertNull("Сжимается короткий ответ GET /rest/players/count.", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Возвращается не правильное количество игроков.", "40", response.getContentAsString());
+    }
+
+    //test4
+    @Test
+    public void fingerprintedResourceTest() throws Exception {
+        String url = context.getBean(ResourceUrlProvider.class).getForLookupPath("/resources/scripts.js");
+        assertNotEquals("Адрес статического файла не содержит хэш содержимого.", "/resources/scripts.js", url);
+
+        MockHttpServletResponse response = perform(compressingMockMvc, get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertTrue("Статический файл отдается без долгого кэширования.",
+                response.getHeader(HttpHeaders.CACHE_CONTROL).contains("max-age=31536000"));
+    }
+
+    //test5
+    @Test
+    public void compressedListHasWeakETagTest() throws Exception {
+        String plain = perform(get("/rest/players?pageSize=40"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = perform(compressingMockMvc, get("/rest/players?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Сжатый ответ GET /rest/players имеет тот же строгий ETag, что и несжатый.",
+                "W/" + plain, response.getHeader(HttpHeaders.ETAG));
+        assertTrue("Сжатый ответ GET /rest/players не содержит Vary: Accept.",
+                response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+
+        perform(compressingMockMvc, get("/rest/players?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+}
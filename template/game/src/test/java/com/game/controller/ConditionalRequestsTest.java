@@ -0,0 +1,116 @@
+package com.game.controller;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalRequestsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getPlayerNotModifiedTest() throws Exception {
+        String eTag = perform(get("/rest/players/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("Возвращается не правильный ETag при запросе GET /rest/players/{id}.", "\"0-json\"", eTag);
+
+        MockHttpServletResponse response = perform(get("/rest/players/1")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals("Возвращается тело при ответе 304 на запрос GET /rest/players/{id}.",
+                0, response.getContentAsByteArray().length);
+    }
+
+    //test2
+    @Test
+    public void getAllPlayersNotModifiedTest() throws Exception {
+        String eTag = perform(get("/rest/players?pageSize=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/rest/players?pageSize=5")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\":true}"))
+                .andExpect(status().isOk());
+
+        String changed = perform(get("/rest/players?pageSize=5")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("Не меняется ETag списка после изменения игрока.", eTag, changed);
+    }
+
+    //test3
+    @Test
+    public void updatePlayerIfMatchTest() throws Exception {
+        String eTag = perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .content("{\"banned\":true}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("Возвращается не правильный ETag при запросе POST /rest/players/{id}.", "\"1-json\"", eTag);
+
+        perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .content("{\"banned\":false}"))
+                .andExpect(status().isConflict());
+    }
+
+    //test4
+    @Test
+    public void deletePlayerIfMatchTest() throws Exception {
+        perform(delete("/rest/players/1")
+                .header(HttpHeaders.IF_MATCH, "\"5\""))
+                .andExpect(status().isConflict());
+
+        perform(delete("/rest/players/1")
+                .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk());
+    }
+
+    //test5
+    @Test
+    public void eTagDependsOnRepresentationTest() throws Exception {
+        String json = perform(get("/rest/players/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String cbor = perform(get("/rest/players/1")
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("Совпадает ETag ответов JSON и CBOR на запрос GET /rest/players/{id}.", json, cbor);
+
+        String fields = perform(get("/rest/players/1?fields=id,name")
+                .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("Возвращается не правильный ETag при запросе GET /rest/players/{id} с выбранными полями.",
+                "\"0-json-id.name\"", fields);
+
+        perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, cbor)
+                .content("{\"banned\":true}"))
+                .andExpect(status().isOk());
+    }
+}
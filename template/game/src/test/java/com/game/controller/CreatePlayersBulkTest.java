@@ -0,0 +1,96 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.TestsHelper;
+import com.game.service.PlayerServiceImpl;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CreatePlayersBulkTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createPlayersFromArrayTest() throws Exception {
+        String content = perform(post("/rest/players/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.TOO_BIG_EXPERIENCE_JSON + ","
+                        + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode actual = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество созданных игроков при запросе POST /rest/players/bulk.",
+                2, actual.get("created").asInt());
+        assertEquals("Возвращается не правильное количество отклоненных игроков при запросе POST /rest/players/bulk.",
+                1, actual.get("rejected").asInt());
+        assertTrue("Не указана причина отказа для игрока со слишком большим опытом при запросе POST /rest/players/bulk.",
+                actual.get("items").get(1).get("id").isNull() && !actual.get("items").get(1).get("error").isNull());
+
+        long id = actual.get("items").get(2).get("id").asLong();
+        content = perform(get("/rest/players/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode player = mapper.readTree(content);
+        assertEquals("Созданному при запросе POST /rest/players/bulk игроку не рассчитан уровень.",
+                35, player.get("level").asInt());
+        assertEquals("Созданному при запросе POST /rest/players/bulk игроку не рассчитан опыт до следующего уровня.",
+                2614, player.get("untilNextLevel").asInt());
+    }
+
+    //test2
+    @Test
+    public void createPlayersFromNdjsonTest() throws Exception {
+        long before = Long.parseLong(perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString());
+
+        String content = perform(post("/rest/players/bulk")
+                .contentType(PlayerRestController.APPLICATION_NDJSON_VALUE)
+                .content(TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Возвращается не правильное количество созданных игроков при запросе POST /rest/players/bulk.",
+                2, mapper.readTree(content).get("created").asInt());
+        long after = Long.parseLong(perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Количество игроков не увеличилось после запроса POST /rest/players/bulk.",
+                before + 2, after);
+    }
+
+    //test3
+    @Test
+    public void createPlayersEmptyArrayTest() throws Exception {
+        perform(post("/rest/players/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void createPlayersFromNdjsonTooManyLinesTest() throws Exception {
+        int maxBulkSize = context.getBean(PlayerServiceImpl.class).getMaxBulkSize();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= maxBulkSize; i++)
+            body.append(TestsHelper.NORMAL_JSON).append('\n');
+        // строка после лишней не должна читаться
+        body.append("{broken\n");
+
+        Exception exception = perform(post("/rest/players/bulk")
+                .contentType(PlayerRestController.APPLICATION_NDJSON_VALUE)
+                .content(body.toString()))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResolvedException();
+        assertEquals("Запрос POST /rest/players/bulk читает поток NDJSON дальше допустимого числа строк.",
+                "Invalid players count", exception.getMessage());
+    }
+}
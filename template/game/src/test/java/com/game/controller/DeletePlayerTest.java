@@ -1,10 +1,16 @@
 package com.game.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.Test;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class DeletePlayerTest extends AbstractTest {
@@ -39,4 +45,71 @@ public class DeletePlayerTest extends AbstractTest {
         mockMvc.perform(get("/rest/players/1"))
                 .andExpect(status().isNotFound());
     }
+
+    //test5
+    @Test
+    public void deletePlayerReturnsBodyTest() throws Exception {
+        String content = mockMvc.perform(delete("/rest/players/3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Не возвращается удаленный игрок при запросе DELETE /rest/players/{id}.",
+                true, content.contains("Эззэссэль"));
+    }
+
+    //test6
+    @Test
+    public void deletePlayersByIdsTest() throws Exception {
+        String content = perform(post("/rest/players/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 2, 426]"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается не правильное количество удаленных игроков при запросе POST /rest/players/bulk-delete.",
+                "2", content);
+
+        mockMvc.perform(get("/rest/players/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test7
+    @Test
+    public void deletePlayersInvalidIdTest() throws Exception {
+        perform(post("/rest/players/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 0]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test8
+    @Test
+    public void deletePlayersUpdatesStatsTest() throws Exception {
+        JsonNode before = getStats();
+        perform(post("/rest/players/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+                .andExpect(status().isOk());
+
+        JsonNode after = getStats();
+        assertEquals("Запрос POST /rest/players/bulk-delete перестраивает статистику заново.",
+                before.get("reconciliations").asLong(), after.get("reconciliations").asLong());
+        assertEquals("Статистика не изменилась после запроса POST /rest/players/bulk-delete.",
+                before.get("total").asLong() - 2, after.get("total").asLong());
+    }
+
+    //test9
+    @Test
+    public void deletePlayerWithStaleCacheTest() throws Exception {
+        mockMvc.perform(get("/rest/players/5"))
+                .andExpect(status().isOk());
+        // игрок изменен в обход сервиса, в кэше осталась прежняя версия
+        new JdbcTemplate(context.getBean(DataSource.class))
+                .update("update player set name = 'Свежий', version = version + 1 where id = 5");
+
+        String content = mockMvc.perform(delete("/rest/players/5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Запрос DELETE /rest/players/{id} возвращает устаревшую копию игрока из кэша.",
+                true, content.contains("Свежий"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Race;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportPlayersTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportNdjsonWithFilterTest() throws Exception {
+        String content = perform(get("/rest/players/export?race=ELF"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = new ArrayList<>();
+        for (String line : content.split("\n"))
+            actual.add(mapper.readValue(line, PlayerInfoTest.class));
+
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers());
+        assertEquals("Возвращается не правильный список при запросе GET /rest/players/export с параметром race.",
+                expected, actual);
+    }
+
+    //test2
+    @Test
+    public void exportCsvTest() throws Exception {
+        String content = perform(get("/rest/players/export?format=CSV"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        assertEquals("Возвращается не правильный заголовок при запросе GET /rest/players/export с параметром format=CSV.",
+                "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel", lines[0]);
+        assertEquals("Возвращается не правильное количество строк при запросе GET /rest/players/export с параметром format=CSV.",
+                testsHelper.getAllPlayers().size(), lines.length - 1);
+        assertEquals("Возвращается не правильная строка при запросе GET /rest/players/export с параметром format=CSV.",
+                "1,Ниус,\"Приходящий Без Шума\",HOBBIT,ROGUE,", lines[1].substring(0, lines[1].indexOf("ROGUE,") + 6));
+    }
+}
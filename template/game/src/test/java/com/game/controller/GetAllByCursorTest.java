@@ -0,0 +1,77 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetAllByCursorTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllByCursorOrderIdReturnAllPlayers() throws Exception {
+        List<PlayerInfoTest> actual = readAllPages("/rest/players?pageSize=7&cursor=");
+
+        assertEquals("Возвращается не правильный результат при обходе GET /rest/players по курсору.",
+                testsHelper.getAllPlayers(), actual);
+    }
+
+    //test2
+    @Test
+    public void getAllByCursorOrderLevelWithFilter() throws Exception {
+        List<PlayerInfoTest> actual = readAllPages("/rest/players?order=LEVEL&banned=false&pageSize=4&cursor=");
+
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByBaned(false, testsHelper.getAllPlayers())
+                .stream()
+                .sorted(Comparator.comparing((PlayerInfoTest p) -> p.level).thenComparing(p -> p.id))
+                .collect(Collectors.toList());
+
+        assertEquals("Возвращается не правильный результат при обходе GET /rest/players по курсору с параметрами order и banned.",
+                expected, actual);
+    }
+
+    //test3
+    @Test
+    public void getAllByCursorOrderNameReturnAllPlayers() throws Exception {
+        List<PlayerInfoTest> actual = readAllPages("/rest/players?order=NAME&pageSize=5&cursor=");
+
+        assertEquals("Возвращается не правильное количество игроков при обходе GET /rest/players по курсору с параметром order.",
+                testsHelper.getAllPlayers().size(), actual.size());
+    }
+
+    //test4
+    @Test
+    public void getAllByInvalidCursorTest() throws Exception {
+        perform(get("/rest/players?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<PlayerInfoTest> readAllPages(String url) throws Exception {
+        List<PlayerInfoTest> result = new ArrayList<>();
+        String cursor = "";
+        do {
+            MockHttpServletResponse response = perform(get(url + cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            result.addAll(mapper.readValue(response.getContentAsString(), typeReference));
+            cursor = response.getHeader(PlayerRestController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return result;
+    }
+}
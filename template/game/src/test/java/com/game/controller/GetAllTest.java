@@ -27,7 +27,7 @@ public class GetAllTest extends AbstractTest {
     //test1
     @Test
     public void getAllWithoutFiltersReturnAllPlayers() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players"))
+        ResultActions resultActions = perform(get("/rest/players"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -42,7 +42,7 @@ public class GetAllTest extends AbstractTest {
     //test2
     @Test
     public void getAllWithFiltersNamePageNumber() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?name=ра&pageNumber=1"))
+        ResultActions resultActions = perform(get("/rest/players?name=ра&pageNumber=1"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -58,7 +58,7 @@ public class GetAllTest extends AbstractTest {
     //test3
     @Test
     public void getAllWithFiltersTitlePageSize() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?title=ой&pageSize=4"))
+        ResultActions resultActions = perform(get("/rest/players?title=ой&pageSize=4"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -76,7 +76,7 @@ public class GetAllTest extends AbstractTest {
     public void getAllWithFiltersRaceProfessionAfterBefore() throws Exception {
         //after 00:00 01.01.2003
         //before 00:00 01.01.2006
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?race=HUMAN&profession=WARRIOR&after=1041372000000&before=1136066400000"))
+        ResultActions resultActions = perform(get("/rest/players?race=HUMAN&profession=WARRIOR&after=1041372000000&before=1136066400000"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -97,7 +97,7 @@ public class GetAllTest extends AbstractTest {
     //test5
     @Test
     public void getAllWithFiltersRaceProfessionMinExperienceMaxExperience() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?race=ELF&profession=SORCERER&minExperience=50000&maxExperience=150000"))
+        ResultActions resultActions = perform(get("/rest/players?race=ELF&profession=SORCERER&minExperience=50000&maxExperience=150000"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -117,7 +117,7 @@ public class GetAllTest extends AbstractTest {
     //test6
     @Test
     public void getAllWithFiltersBannedMinLevelMaxLevel() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?banned=false&minLevel=10&maxLevel=30"))
+        ResultActions resultActions = perform(get("/rest/players?banned=false&minLevel=10&maxLevel=30"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -136,7 +136,7 @@ public class GetAllTest extends AbstractTest {
     //test7
     @Test
     public void getAllWithFiltersBannedMaxLevel() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?banned=false&maxLevel=20"))
+        ResultActions resultActions = perform(get("/rest/players?banned=false&maxLevel=20"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -156,7 +156,7 @@ public class GetAllTest extends AbstractTest {
     public void getAllWithFiltersAfterBeforeMinExperienceMaxExperience() throws Exception {
         //after 00:00 01.01.2005
         //before 00:00 01.01.2009
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?after=1104530400000&before=1230760800000&minExperience=30000&maxExperience=100000&pageNumber=1"))
+        ResultActions resultActions = perform(get("/rest/players?after=1104530400000&before=1230760800000&minExperience=30000&maxExperience=100000&pageNumber=1"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
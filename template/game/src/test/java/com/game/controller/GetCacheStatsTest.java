@@ -0,0 +1,83 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.cache.PlayerCache;
+import com.game.entity.Player;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetCacheStatsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void repeatedGetIsCacheHitTest() throws Exception {
+        JsonNode before = getCacheStats();
+        perform(get("/rest/players/5")).andExpect(status().isOk());
+        perform(get("/rest/players/5")).andExpect(status().isOk());
+        JsonNode after = getCacheStats();
+
+        assertEquals("Повторный запрос GET /rest/players/{id} не попадает в кэш.",
+                before.get("hits").asLong() + 1, after.get("hits").asLong());
+        assertTrue("Первый запрос GET /rest/players/{id} не загружает игрока в кэш.",
+                after.get("misses").asLong() > before.get("misses").asLong());
+    }
+
+    //test2
+    @Test
+    public void updateRefreshesCachedPlayerTest() throws Exception {
+        perform(get("/rest/players/5")).andExpect(status().isOk());
+        perform(post("/rest/players/5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Кэш\"}"))
+                .andExpect(status().isOk());
+
+        String content = perform(get("/rest/players/5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Запрос GET /rest/players/{id} после изменения возвращает игрока из устаревшего кэша.",
+                "Кэш", mapper.readTree(content).get("name").asText());
+    }
+
+    //test3
+    @Test
+    public void olderVersionDoesNotReplaceCachedPlayerTest() throws Exception {
+        perform(get("/rest/players/5")).andExpect(status().isOk());
+        PlayerCache cache = context.getBean(PlayerCache.class);
+        Player cached = cache.peek(5L).orElseThrow(AssertionError::new);
+
+        Player stale = new Player(cached);
+        stale.setName("Старый");
+        stale.setVersion(cached.getVersion() - 1);
+        cache.playerUpdated(null, stale);
+
+        assertEquals("Кэш заменяет игрока изменением с более старой версией.",
+                cached.getName(), cache.peek(5L).map(Player::getName).orElse(null));
+    }
+
+    //test4
+    @Test
+    public void lateUpdateDoesNotRestoreDeletedPlayerTest() throws Exception {
+        perform(get("/rest/players/5")).andExpect(status().isOk());
+        PlayerCache cache = context.getBean(PlayerCache.class);
+        Player cached = cache.peek(5L).orElseThrow(AssertionError::new);
+
+        cache.playerDeleted(cached);
+        cache.playerUpdated(null, cached);
+
+        assertEquals("Опоздавшее изменение возвращает удаленного игрока в кэш.",
+                false, cache.peek(5L).isPresent());
+    }
+
+    private JsonNode getCacheStats() throws Exception {
+        return getJson("/rest/admin/cache");
+    }
+}
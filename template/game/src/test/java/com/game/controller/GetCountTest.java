@@ -19,7 +19,7 @@ public class GetCountTest extends AbstractTest {
     //test1
     @Test
     public void getCountWithoutFiltersReturnAllPlayers() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count")
+        ResultActions resultActions = this.perform(get("/rest/players/count")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -34,7 +34,7 @@ public class GetCountTest extends AbstractTest {
     //test2
     @Test
     public void getCountWithFiltersMinLevelMinExperience() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?minLevel=42&minExperience=94000")
+        ResultActions resultActions = this.perform(get("/rest/players/count?minLevel=42&minExperience=94000")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -52,7 +52,7 @@ public class GetCountTest extends AbstractTest {
     @Test
     public void getCountWithFiltersNameAfterMaxLevel() throws Exception {
         //after 00:00 01.01.2005
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?name=ри&after=1104530400000&maxLevel=40")
+        ResultActions resultActions = this.perform(get("/rest/players/count?name=ри&after=1104530400000&maxLevel=40")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -70,7 +70,7 @@ public class GetCountTest extends AbstractTest {
     //test4
     @Test
     public void getCountWithFiltersRaceProfessionBanned() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?race=DWARF&profession=CLERIC&banned=true")
+        ResultActions resultActions = this.perform(get("/rest/players/count?race=DWARF&profession=CLERIC&banned=true")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -88,7 +88,7 @@ public class GetCountTest extends AbstractTest {
     //test5
     @Test
     public void getCountWithFiltersRaceProfessionMaxExperience() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?race=TROLL&profession=WARRIOR&maxExperience=120000")
+        ResultActions resultActions = this.perform(get("/rest/players/count?race=TROLL&profession=WARRIOR&maxExperience=120000")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -106,7 +106,7 @@ public class GetCountTest extends AbstractTest {
     //test6
     @Test
     public void getCountWithFiltersTitle() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?title=ий")
+        ResultActions resultActions = this.perform(get("/rest/players/count?title=ий")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -122,7 +122,7 @@ public class GetCountTest extends AbstractTest {
     @Test
     public void getCountWithFiltersRaceProfessionBefore() throws Exception {
         //before 00:00 01.01.2008
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?race=GIANT&profession=WARRIOR&before=1199138400000")
+        ResultActions resultActions = this.perform(get("/rest/players/count?race=GIANT&profession=WARRIOR&before=1199138400000")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
@@ -140,7 +140,7 @@ public class GetCountTest extends AbstractTest {
     //test8
     @Test
     public void getCountWithFiltersBanned() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/players/count?banned=false")
+        ResultActions resultActions = this.perform(get("/rest/players/count?banned=false")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
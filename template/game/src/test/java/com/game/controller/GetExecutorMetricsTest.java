@@ -0,0 +1,52 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetExecutorMetricsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void countRunsOnReadExecutorTest() throws Exception {
+        long before = readExecutor().path("waitTime").path("count").asLong();
+
+        perform(get("/rest/players/count"))
+                .andExpect(status().isOk());
+
+        // время ожидания учитывается до выполнения задачи, поэтому уже видно в метриках
+        assertEquals("Запрос GET /rest/players/count выполняется не в пуле чтения.",
+                before + 1, readExecutor().path("waitTime").path("count").asLong());
+    }
+
+    //test2
+    @Test
+    public void getExecutorMetricsTest() throws Exception {
+        JsonNode actual = executors();
+
+        assertEquals("Ответ GET /rest/admin/executors содержит не все пулы.", 3, actual.size());
+        for (JsonNode executor : actual)
+            assertTrue("Ответ GET /rest/admin/executors не содержит глубину очереди.", executor.has("queued"));
+    }
+
+    private JsonNode executors() throws Exception {
+        String content = perform(get("/rest/admin/executors"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(content);
+    }
+
+    private JsonNode readExecutor() throws Exception {
+        for (JsonNode executor : executors())
+            if (executor.path("executor").asText().equals("read"))
+                return executor;
+        throw new AssertionError("Ответ GET /rest/admin/executors не содержит пул чтения.");
+    }
+}
@@ -0,0 +1,49 @@
+package com.game.controller;
+
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetMetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getMetricsCountsErrorsByExceptionTest() throws Exception {
+        perform(get("/rest/players/426"))
+                .andExpect(status().isNotFound());
+
+        String content = perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue("Ответ GET /metrics не содержит ошибку обработчика по типу исключения.",
+                content.contains("player_handler_errors_total{handler=\"PlayerRestController.getPlayerById(Long,String,String)\","
+                        + "exception=\"NotFoundException\"}"));
+        assertTrue("Ответ GET /metrics не содержит ошибку метода сервиса по типу исключения.",
+                content.contains("player_service_errors_total{method=\"PlayerService.getPlayerById(Long)\","
+                        + "exception=\"NotFoundException\"}"));
+    }
+
+    //test2
+    @Test
+    public void getMetricsMeasuresAsyncHandlersTest() throws Exception {
+        perform(get("/rest/players/count"))
+                .andExpect(status().isOk());
+
+        String content = perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String handler = "handler=\"PlayerRestController.getPlayersCount(PlayerFilter)\"";
+        assertTrue("Ответ GET /metrics не содержит гистограмму асинхронного обработчика.",
+                content.contains("player_handler_duration_seconds_bucket{" + handler + ",le=\"+Inf\"}"));
+        assertTrue("Асинхронный обработчик не завершен в метриках.",
+                content.contains("player_handler_in_flight{" + handler + "} 0\n"));
+        assertTrue("Ответ GET /metrics не содержит число выполняющихся вызовов сервиса.",
+                content.contains("player_service_in_flight{method=\"PlayerService.getPlayersCount(PlayerFilter)\"} 0\n"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetPoolMetricsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getPoolMetricsTest() throws Exception {
+        String content = perform(get("/rest/admin/pool"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode actual = mapper.readTree(content);
+        assertTrue("Ответ GET /rest/admin/pool не содержит числа ожидающих потоков.", actual.has("waiting"));
+        assertTrue("Ответ GET /rest/admin/pool не содержит гистограмму времени получения соединения.",
+                actual.path("borrowTime").has("buckets"));
+    }
+}
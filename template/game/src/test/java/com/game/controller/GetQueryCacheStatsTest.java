@@ -0,0 +1,94 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.cache.QueryCache;
+import com.game.controller.utils.TestsHelper;
+import com.game.service.PlayerChangeListener;
+import com.game.service.PlayerServiceImpl;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetQueryCacheStatsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void repeatedCountIsCacheHitTest() throws Exception {
+        getCount("/rest/players/count?race=ELF&banned=false");
+        long hits = findQuery("count:race=ELF&banned=false").get("hits").asLong();
+        getCount("/rest/players/count?banned=false&race=ELF");
+
+        assertEquals("Повторный запрос GET /rest/players/count не попадает в кэш запросов.",
+                hits + 1, findQuery("count:race=ELF&banned=false").get("hits").asLong());
+    }
+
+    //test2
+    @Test
+    public void createInvalidatesCachedCountTest() throws Exception {
+        long before = getCount("/rest/players/count");
+        perform(post("/rest/players/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals("Запрос GET /rest/players/count после создания игрока возвращает устаревший результат.",
+                before + 1, getCount("/rest/players/count"));
+    }
+
+    //test3
+    @Test
+    public void queryCacheIsLastListenerTest() {
+        PlayerServiceImpl service = AopTestUtils.getTargetObject(context.getBean(PlayerServiceImpl.class));
+        @SuppressWarnings("unchecked")
+        List<PlayerChangeListener> listeners =
+                (List<PlayerChangeListener>) ReflectionTestUtils.getField(service, "listeners");
+
+        assertEquals("Кэш запросов получает изменения игроков раньше структур в памяти.",
+                QueryCache.class, listeners.get(listeners.size() - 1).getClass());
+    }
+
+    //test4
+    @Test
+    public void escapedFilterDoesNotCollideTest() throws Exception {
+        long escaped = getCount(get("/rest/players/count").param("name", "ан&race=ELF"));
+        long filtered = getCount(get("/rest/players/count").param("name", "ан").param("race", "ELF"));
+
+        assertEquals("Запрос GET /rest/players/count с экранированным фильтром возвращает неверный результат.",
+                0L, escaped);
+        assertEquals("Запрос GET /rest/players/count возвращает результат другого фильтра из кэша запросов.",
+                true, filtered > 0);
+    }
+
+    private long getCount(String url) throws Exception {
+        return getCount(get(url));
+    }
+
+    private long getCount(RequestBuilder request) throws Exception {
+        String content = perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(content);
+    }
+
+    private JsonNode findQuery(String query) throws Exception {
+        String content = perform(get("/rest/admin/query-cache?limit=1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        for (JsonNode node : mapper.readTree(content).get("queries"))
+            if (query.equals(node.get("query").asText()))
+                return node;
+        throw new AssertionError("Запрос " + query + " отсутствует в статистике кэша запросов.");
+    }
+}
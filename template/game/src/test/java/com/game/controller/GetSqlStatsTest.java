@@ -0,0 +1,58 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetSqlStatsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getSqlStatsTest() throws Exception {
+        perform(delete("/rest/players/5"))
+                .andExpect(status().isOk());
+
+        JsonNode actual = getSqlStats();
+        assertTrue("Ответ GET /rest/admin/sql не содержит число выполненных запросов.",
+                actual.path("statements").asLong() > 0);
+        assertTrue("Ответ GET /rest/admin/sql не содержит формы запросов.",
+                actual.path("shapes").size() > 0 && actual.path("shapes").get(0).has("latency"));
+        assertTrue("Ответ GET /rest/admin/sql не содержит SQL запросы удаления игрока.",
+                queries(actual, "PlayerRestController.deletePlayer(") > 0);
+    }
+
+    //test2
+    @Test
+    public void getSqlStatsCountsAsyncRequestsTest() throws Exception {
+        perform(post("/rest/players/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[6, 7]"))
+                .andExpect(status().isOk());
+
+        assertTrue("SQL запросы асинхронного обработчика не учитываются в его HTTP запросе.",
+                queries(getSqlStats(), "PlayerRestController.deletePlayers(") > 0);
+    }
+
+    private JsonNode getSqlStats() throws Exception {
+        String content = perform(get("/rest/admin/sql"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(content);
+    }
+
+    private static long queries(JsonNode stats, String handler) {
+        for (JsonNode request : stats.path("requests"))
+            if (request.path("handler").asText().startsWith(handler))
+                return request.path("queries").asLong();
+        return 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.stats.PlayerStats;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetStatsTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void getStatsTest() throws Exception {
+        List<PlayerInfoTest> players = testsHelper.getAllPlayers();
+        JsonNode actual = getStats();
+
+        assertEquals("Возвращается не правильное количество игроков при запросе GET /rest/players/stats.",
+                (long) players.size(), actual.path("total").asLong());
+        assertEquals("Возвращается не правильное количество забаненных игроков при запросе GET /rest/players/stats.",
+                (long) testsHelper.getPlayerInfosByBaned(true, players).size(), actual.path("banned").asLong());
+        assertEquals("Возвращается не правильный суммарный опыт при запросе GET /rest/players/stats.",
+                players.stream().mapToLong(player -> player.experience).sum(), actual.path("experience").asLong());
+
+        long grouped = 0;
+        for (JsonNode group : actual.path("groups"))
+            grouped += group.path("count").asLong();
+        long leveled = 0;
+        for (JsonNode level : actual.path("levels"))
+            leveled += level.path("count").asLong();
+        assertEquals("Сумма по группам не совпадает с количеством игроков.", (long) players.size(), grouped);
+        assertEquals("Сумма по уровням не совпадает с количеством игроков.", (long) players.size(), leveled);
+    }
+
+    //test2
+    @Test
+    public void getStatsAfterChangesMatchesDatabaseTest() throws Exception {
+        perform(post("/rest/players/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        perform(post("/rest/players/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\": true, \"experience\": 2000}"))
+                .andExpect(status().isOk());
+        perform(delete("/rest/players/3"))
+                .andExpect(status().isOk());
+
+        JsonNode actual = getStats();
+        assertEquals("Количество игроков не изменено по событиям сервиса.",
+                (long) testsHelper.getAllPlayers().size(), actual.path("total").asLong());
+
+        PlayerStats playerStats = context.getBean(PlayerStats.class);
+        long corrections = playerStats.snapshot().getCorrections();
+        playerStats.reconcile(true);
+        assertEquals("Счетчики, измененные по событиям сервиса, расходятся с базой данных.",
+                corrections, playerStats.snapshot().getCorrections());
+    }
+}
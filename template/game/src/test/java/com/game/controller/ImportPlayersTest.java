@@ -0,0 +1,82 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportPlayersTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void importCsvWithRejectsTest() throws Exception {
+        String csv = "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel\n" +
+                ",Арагорн,Следопыт,HUMAN,WARRIOR,988059600000,false,1000,,\n" +
+                ",Леголас,\"Лучник, эльф\",ELF,ROGUE,988059600000,,2000,,\n" +
+                ",Боромир,Гондорец,HUMAN,WARRIOR,988059600000,false,99999999,,\n" +
+                ",Гимли,Гном,DWARFISH,WARRIOR,988059600000,false,1000,,\n";
+
+        String content = perform(post("/rest/imports?format=CSV")
+                .contentType("text/csv")
+                .content(csv.getBytes("UTF-8")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode job = mapper.readTree(content);
+        assertEquals("Загрузка POST /rest/imports не завершилась.", "COMPLETED", job.get("state").asText());
+        assertEquals("Возвращается не правильное количество прочитанных записей при запросе POST /rest/imports.",
+                4L, job.get("records").asLong());
+        assertEquals("Возвращается не правильное количество созданных игроков при запросе POST /rest/imports.",
+                2L, job.get("created").asLong());
+        assertEquals("Возвращается не правильное количество отклоненных записей при запросе POST /rest/imports.",
+                2L, job.get("rejected").asLong());
+
+        String rejects = perform(get("/rest/imports/" + job.get("id").asLong() + "/rejects"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = rejects.split("\n");
+        assertEquals("Отчет об отклоненных записях содержит не правильное количество строк.", 2, lines.length);
+        assertEquals("Отчет об отклоненных записях содержит не правильный номер записи.",
+                4L, mapper.readTree(lines[0]).get("record").asLong());
+        assertEquals("Отчет об отклоненных записях содержит не правильный номер записи.",
+                3L, mapper.readTree(lines[1]).get("record").asLong());
+
+        String count = perform(get("/rest/players/count?name=Леголас"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Игрок из загрузки POST /rest/imports не найден.", "1", count);
+    }
+
+    //test2
+    @Test
+    public void importNdjsonProgressTest() throws Exception {
+        String content = perform(post("/rest/imports")
+                .contentType(PlayerRestController.APPLICATION_NDJSON_VALUE)
+                .content((TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n").getBytes("UTF-8")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = mapper.readTree(content).get("id").asLong();
+
+        content = perform(get("/rest/imports/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode job = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество созданных игроков при запросе GET /rest/imports/{id}.",
+                2L, job.get("created").asLong());
+        assertEquals("Не возвращается скорость загрузки при запросе GET /rest/imports/{id}.",
+                true, job.get("rowsPerSecond").isNumber());
+    }
+
+    //test3
+    @Test
+    public void importNotFoundTest() throws Exception {
+        perform(get("/rest/imports/0"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,93 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PatchPlayerTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void patchPlayerExperienceTest() throws Exception {
+        MockHttpServletResponse response = perform(patch("/rest/players/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experience\":1000}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        JsonNode player = mapper.readTree(response.getContentAsString());
+        assertEquals("Не изменяется опыт при запросе PATCH /rest/players/{id}.", 1000, player.get("experience").asInt());
+        assertEquals("Не пересчитывается уровень при запросе PATCH /rest/players/{id}.", 4, player.get("level").asInt());
+        assertEquals("Не пересчитывается опыт до следующего уровня при запросе PATCH /rest/players/{id}.",
+                500, player.get("untilNextLevel").asInt());
+        assertEquals("Изменяется не переданное поле при запросе PATCH /rest/players/{id}.",
+                "Эззэссэль", player.get("name").asText());
+        assertEquals("Возвращается не правильная версия при запросе PATCH /rest/players/{id}.",
+                "\"1-json\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    //test2
+    @Test
+    public void patchPlayerConflictTest() throws Exception {
+        perform(patch("/rest/players/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .content("{\"title\":\"Первая правка\"}"))
+                .andExpect(status().isOk());
+
+        perform(patch("/rest/players/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .content("{\"title\":\"Вторая правка\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    //test3
+    @Test
+    public void patchPlayerInvalidFieldTest() throws Exception {
+        perform(patch("/rest/players/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experience\":-1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void patchPlayerNotExistTest() throws Exception {
+        perform(patch("/rest/players/415")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\":true}"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test5
+    @Test
+    public void patchPlayerUpdatesStatsTest() throws Exception {
+        JsonNode before = getStats();
+        perform(patch("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\":true}"))
+                .andExpect(status().isOk());
+
+        // прежний игрок не читается, статистику исправляет сверка, запрошенная изменением
+        JsonNode after = getStats();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (after.get("banned").asLong() == before.get("banned").asLong() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            after = getStats();
+        }
+        assertEquals("Статистика не изменилась после запроса PATCH /rest/players/{id}.",
+                before.get("banned").asLong() + 1, after.get("banned").asLong());
+    }
+}
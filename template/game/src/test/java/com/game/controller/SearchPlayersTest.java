@@ -0,0 +1,125 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.search.PlayerTextIndex;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SearchPlayersTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void searchWithoutFiltersReturnFirstPageAndCount() throws Exception {
+        String content = perform(get("/rest/players/search"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode actual = mapper.readTree(content);
+        List<PlayerInfoTest> players = mapper.convertValue(actual.get("players"), typeReference);
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/players/search.",
+                testsHelper.getPlayerInfosByPage(0, 3, testsHelper.getAllPlayers()), players);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/players/search.",
+                (long) testsHelper.getAllPlayers().size(), actual.get("count").asLong());
+    }
+
+    //test2
+    @Test
+    public void searchWithFiltersRaceProfessionPageNumber() throws Exception {
+        String content = perform(get("/rest/players/search?race=ELF&profession=SORCERER&pageNumber=1&pageSize=2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode actual = mapper.readTree(content);
+        List<PlayerInfoTest> players = mapper.convertValue(actual.get("players"), typeReference);
+        List<PlayerInfoTest> filtered = testsHelper.getPlayerInfosByRace(Race.ELF,
+                testsHelper.getPlayerInfosByProfession(Profession.SORCERER, testsHelper.getAllPlayers()));
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/players/search с параметрами race, profession и pageNumber.",
+                testsHelper.getPlayerInfosByPage(1, 2, filtered), players);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/players/search с параметрами race, profession и pageNumber.",
+                (long) filtered.size(), actual.get("count").asLong());
+    }
+
+    //test3
+    @Test
+    public void searchWithFiltersNameTitleAfterChanges() throws Exception {
+        perform(post("/rest/players/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        perform(post("/rest/players/7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Гэндальф\"}"))
+                .andExpect(status().isOk());
+
+        String content = perform(get("/rest/players/search?name=лан&pageSize=10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode actual = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/players/search с параметром name.",
+                (long) testsHelper.getPlayerInfosByName("лан", testsHelper.getAllPlayers()).size() - 1,
+                actual.get("count").asLong());
+
+        content = perform(get("/rest/players/search?name=ндаль"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        actual = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/players/search с параметром name.",
+                1L, actual.get("count").asLong());
+
+        content = perform(get("/rest/players/search?title=Прозелит"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        actual = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/players/search с параметром title.",
+                1L, actual.get("count").asLong());
+    }
+
+    //test4
+    @Test
+    public void searchWithInvalidRaceTest() throws Exception {
+        perform(get("/rest/players/search?race=UNKNOWN"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void searchDuringWriteFindsUnindexedPlayerTest() throws Exception {
+        PlayerTextIndex textIndex = context.getBean(PlayerTextIndex.class);
+        textIndex.beginWrite();
+        try {
+            // изменение уже видно в базе данных, но индекс еще не получил уведомление о нем
+            new JdbcTemplate(context.getBean(DataSource.class))
+                    .update("update player set name = 'Неучтенный' where id = 5");
+
+            String content = perform(get("/rest/players/search?name=Неучтен"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals("Поиск по имени во время записи не находит игрока, которого еще нет в индексе.",
+                    1L, mapper.readTree(content).get("count").asLong());
+        } finally {
+            textIndex.endWrite();
+        }
+    }
+}
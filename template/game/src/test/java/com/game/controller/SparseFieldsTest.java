@@ -0,0 +1,75 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SparseFieldsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getAllPlayersFieldsTest() throws Exception {
+        String content = perform(get("/rest/players?pageSize=5&order=LEVEL&fields=id,name,level"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode players = mapper.readTree(content);
+        assertEquals("Возвращается не правильное количество игроков при запросе GET /rest/players?fields.",
+                5, players.size());
+        assertEquals("Возвращаются не выбранные поля при запросе GET /rest/players?fields.",
+                Arrays.asList("id", "name", "level"), fieldNames(players.get(0)));
+        assertEquals("Не учитывается сортировка при запросе GET /rest/players?fields.",
+                3, players.get(0).get("level").asInt());
+    }
+
+    //test2
+    @Test
+    public void getPlayerFieldsTest() throws Exception {
+        String content = perform(get("/rest/players/1?fields=title,experience"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode player = mapper.readTree(content);
+        assertEquals("Возвращаются не выбранные поля при запросе GET /rest/players/{id}?fields.",
+                Arrays.asList("title", "experience"), fieldNames(player));
+        assertEquals("Возвращается не правильный опыт при запросе GET /rest/players/{id}?fields.",
+                58347, player.get("experience").asInt());
+    }
+
+    //test3
+    @Test
+    public void exportPlayersFieldsTest() throws Exception {
+        String content = perform(get("/rest/players/export?format=CSV&fields=id,race&race=DWARF"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        assertEquals("Выгружаются не выбранные столбцы при запросе GET /rest/players/export?fields.",
+                "id,race", lines[0]);
+        assertEquals("Выгружается не правильная строка при запросе GET /rest/players/export?fields.",
+                "3,DWARF", lines[1]);
+    }
+
+    //test4
+    @Test
+    public void unknownFieldTest() throws Exception {
+        perform(get("/rest/players?fields=id,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
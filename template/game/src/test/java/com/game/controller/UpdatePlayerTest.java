@@ -7,9 +7,12 @@ import com.game.controller.utils.TestsHelper;
 import com.game.entity.Race;
 import org.junit.Test;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import javax.sql.DataSource;
+
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertNotEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -181,4 +184,19 @@ public class UpdatePlayerTest extends AbstractTest {
 
         assertEquals("При запросе POST /rest/players/{id} игрок должен обновляться и рейтинг пересчитываться", expected, actual);
     }
+
+    //test12
+    @Test
+    public void updatePlayerWithStaleCacheTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/rest/players/5"))
+                .andExpect(status().isOk());
+        // игрок изменен в обход сервиса, в кэше осталась прежняя версия
+        new JdbcTemplate(context.getBean(DataSource.class))
+                .update("update player set version = version + 1 where id = 5");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Кэш\"}"))
+                .andExpect(status().isOk());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Race;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class UpdatePlayersBulkTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void banPlayersByRaceTest() throws Exception {
+        String content = perform(post("/rest/players/bulk-update?race=ELF")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\": true}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Возвращается не правильное количество измененных игроков при запросе POST /rest/players/bulk-update.",
+                testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()).size(),
+                Integer.parseInt(content));
+
+        content = perform(get("/rest/players/count?race=ELF&banned=false"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("После запроса POST /rest/players/bulk-update остались не забаненные игроки.",
+                "0", content);
+    }
+
+    //test2
+    @Test
+    public void experienceDeltaRecalculatesLevelTest() throws Exception {
+        perform(post("/rest/players/bulk-update?name=Ниус")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experienceDelta\": 10000, \"title\": \"Ветеран\"}"))
+                .andExpect(status().isOk());
+
+        JsonNode player = getPlayer(1);
+        assertEquals("Опыт игрока не изменился после запроса POST /rest/players/bulk-update.",
+                68347, player.get("experience").asInt());
+        assertEquals("Уровень игрока не пересчитан после запроса POST /rest/players/bulk-update.",
+                36, player.get("level").asInt());
+        assertEquals("Опыт до следующего уровня не пересчитан после запроса POST /rest/players/bulk-update.",
+                1953, player.get("untilNextLevel").asInt());
+        assertEquals("Титул игрока не изменился после запроса POST /rest/players/bulk-update.",
+                "Ветеран", player.get("title").asText());
+    }
+
+    //test3
+    @Test
+    public void experienceDeltaIsClampedTest() throws Exception {
+        perform(post("/rest/players/bulk-update?name=Ниус")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"experienceDelta\": -10000000}"))
+                .andExpect(status().isOk());
+
+        JsonNode player = getPlayer(1);
+        assertEquals("Опыт игрока стал отрицательным после запроса POST /rest/players/bulk-update.",
+                0, player.get("experience").asInt());
+        assertEquals("Опыт до следующего уровня не пересчитан после запроса POST /rest/players/bulk-update.",
+                100, player.get("untilNextLevel").asInt());
+    }
+
+    //test4
+    @Test
+    public void emptyChangesTest() throws Exception {
+        perform(post("/rest/players/bulk-update")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void statsUpdatedAfterBulkUpdateTest() throws Exception {
+        perform(post("/rest/players/bulk-update?race=ELF&banned=false")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"banned\": true}"))
+                .andExpect(status().isOk());
+
+        JsonNode stats = getStats();
+
+        long bannedElves = 0;
+        for (JsonNode group : stats.get("groups"))
+            if ("ELF".equals(group.get("race").asText()) && group.get("banned").asBoolean())
+                bannedElves += group.get("count").asLong();
+        assertEquals("Статистика не изменилась после запроса POST /rest/players/bulk-update.",
+                (long) testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers()).size(), bannedElves);
+    }
+
+    private JsonNode getPlayer(long id) throws Exception {
+        String content = perform(get("/rest/players/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(content);
+    }
+}
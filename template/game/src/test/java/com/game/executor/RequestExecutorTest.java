@@ -0,0 +1,113 @@
+package com.game.executor;
+
+import com.game.exception.ServiceUnavailableException;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final RequestExecutor executor = new RequestExecutor("test", 1, 1, 100);
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    //test1
+    @Test
+    public void rejectsWhenQueueIsFullTest() {
+        executor.call(this::block);
+        executor.call(() -> 1);
+        try {
+            executor.call(() -> 2);
+            fail();
+        } catch (ServiceUnavailableException expected) {
+            assertEquals(1, executor.snapshot().getRejected());
+        }
+    }
+
+    //test2
+    @Test
+    public void queuedTaskExpiresTest() throws Exception {
+        executor.call(this::block);
+        DeferredResult<Integer> queued = executor.call(() -> 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!queued.hasResult() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+
+        assertTrue(queued.getResult() instanceof ServiceUnavailableException);
+        assertEquals(1, executor.snapshot().getTimeouts());
+        assertEquals(0, executor.snapshot().getQueued());
+    }
+
+    //test3
+    @Test
+    public void completedTaskSetsResultTest() throws Exception {
+        DeferredResult<Integer> result = executor.call(() -> 42);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+
+        assertEquals(42, result.getResult());
+        assertEquals(1, executor.snapshot().getWaitTime().getCount());
+    }
+
+    //test4
+    @Test
+    public void virtualThreadsFallBackOnOldJvmTest() throws Exception {
+        RequestExecutor virtual = new RequestExecutor("virtual", 1, 1, 100, true);
+        try {
+            assertEquals(VirtualThreads.isSupported(), virtual.isVirtualThreads());
+
+            virtual.call(this::block);
+            virtual.call(this::block);
+            try {
+                virtual.call(() -> 2);
+                fail();
+            } catch (ServiceUnavailableException expected) {
+                assertEquals(1, virtual.snapshot().getRejected());
+            }
+        } finally {
+            release.countDown();
+            virtual.shutdown();
+        }
+    }
+
+    //test5
+    @Test
+    public void virtualThreadsWaitingTaskExpiresTest() throws Exception {
+        RequestExecutor virtual = new RequestExecutor("virtual", 1, 1, 100, true);
+        try {
+            virtual.call(this::block);
+            DeferredResult<Integer> waiting = virtual.call(() -> 2);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!waiting.hasResult() && System.nanoTime() < deadline)
+                Thread.sleep(10);
+
+            assertTrue(waiting.getResult() instanceof ServiceUnavailableException);
+            assertEquals(1, virtual.snapshot().getTimeouts());
+        } finally {
+            release.countDown();
+            virtual.shutdown();
+        }
+    }
+
+    private Integer block() throws InterruptedException {
+        release.await();
+        return 0;
+    }
+}
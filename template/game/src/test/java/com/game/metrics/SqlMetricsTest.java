@@ -0,0 +1,70 @@
+package com.game.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SqlMetricsTest {
+
+    @Test
+    public void normalizeReplacesLiteralsAndParameterListsTest() {
+        assertEquals("select * from player where name = ? and level > ? and id in (?...)",
+                SqlMetrics.normalize("select *\n  from player where name = 'it''s' and level > 10 and id in (?, ?, ?)"));
+        assertEquals("select player0_.id from player player0_ limit ?",
+                SqlMetrics.normalize("select player0_.id from player player0_ limit 20"));
+    }
+
+    @Test
+    public void recordGroupsStatementsByShapeTest() {
+        SqlMetrics metrics = new SqlMetrics(1_000, false, 20, 10);
+
+        assertFalse(metrics.record("delete from player where id in (?, ?)", 1_000, false));
+        assertFalse(metrics.record("delete from player where id in (?, ?, ?)", 1_000, true));
+
+        SqlMetrics.Stats stats = metrics.stats(10);
+        assertEquals(2, stats.getStatements());
+        assertEquals(1, stats.getErrors());
+        assertEquals(1, stats.getShapeCount());
+        assertEquals(2, stats.getShapes().get(0).getLatency().getCount());
+    }
+
+    @Test
+    public void slowStatementsAreLoggedWithParametersTest() {
+        SqlMetrics metrics = new SqlMetrics(5, false, 20, 1);
+        long slow = TimeUnit.MILLISECONDS.toNanos(10);
+
+        assertTrue(metrics.record("select * from player where name = ?", slow, false));
+        metrics.recordSlow("select * from player where name = ?", Arrays.asList("Ниус", 3), slow, null);
+        metrics.recordSlow("select * from player where id = ?", Arrays.asList(1L), slow, null);
+
+        SqlMetrics.Stats stats = metrics.stats(10);
+        assertEquals(2, stats.getSlowStatements());
+        assertEquals("журнал хранит только последние запросы", 1, stats.getSlowQueries().size());
+        assertEquals(Arrays.asList("1"), stats.getSlowQueries().get(0).getParameters());
+    }
+
+    @Test
+    public void requestQueriesAreCountedByHandlerTest() {
+        SqlMetrics metrics = new SqlMetrics(1_000, false, 20, 10);
+        QueryCounter counter = new QueryCounter("handler");
+
+        QueryCounter previous = QueryCounter.attach(counter);
+        try {
+            QueryCounter.propagate(() -> metrics.record("select 1", 1_000, false)).run();
+            metrics.record("select 2", 1_000, false);
+        } finally {
+            QueryCounter.attach(previous);
+        }
+        metrics.recordRequest(counter);
+
+        SqlMetrics.RequestSnapshot request = metrics.stats(10).getRequests().get(0);
+        assertEquals("handler", request.getHandler());
+        assertEquals(2, request.getQueries());
+        assertEquals(2, request.getMaxQueries());
+    }
+}
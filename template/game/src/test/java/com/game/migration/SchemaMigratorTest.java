@@ -0,0 +1,99 @@
+package com.game.migration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaMigratorTest {
+
+    private static final String[] RACES = {"HUMAN", "DWARF", "ELF", "GIANT", "ORC", "TROLL", "HOBBIT"};
+    private static final String[] PROFESSIONS = {"WARRIOR", "ROGUE", "SORCERER", "CLERIC", "PALADIN", "NAZGUL", "WARLOCK", "DRUID"};
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void cleanup() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    //test1
+    @Test
+    public void migrateEmptySchemaTest() {
+        int executed = new SchemaMigrator(dataSource).migrate();
+
+        assertTrue("Миграции не применены к пустой схеме.", executed >= 2);
+        assertEquals("Повторный запуск применяет миграции еще раз.", 0, new SchemaMigrator(dataSource).migrate());
+    }
+
+    //test2
+    @Test
+    public void migrateExistingSchemaFromBaselineTest() {
+        jdbcTemplate.execute("CREATE TABLE player (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(12), " +
+                "title VARCHAR(30), race VARCHAR(20), profession VARCHAR(20), birthday DATE, banned BIT(1), " +
+                "experience INT, level INT, untilNextLevel INT)");
+
+        new SchemaMigrator(dataSource).migrate();
+
+        Integer indexes = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE TABLE_NAME = 'PLAYER' AND INDEX_NAME = 'IDX_PLAYER_LEVEL_ID'", Integer.class);
+        assertEquals("Индексы не созданы для схемы из init.sql.", Integer.valueOf(1), indexes);
+    }
+
+    //test3
+    @Test
+    public void hotQueriesUseIndexesTest() {
+        new SchemaMigrator(dataSource).migrate();
+        seed(5000);
+
+        assertUsesIndex("IDX_PLAYER_RACE_PROFESSION_ID",
+                "SELECT * FROM player WHERE race = 'ELF' AND profession = 'SORCERER' ORDER BY id LIMIT 3");
+        assertUsesIndex("IDX_PLAYER_PROFESSION_ID",
+                "SELECT * FROM player WHERE profession = 'DRUID' ORDER BY id LIMIT 3");
+        assertUsesIndex("IDX_PLAYER_LEVEL_ID",
+                "SELECT * FROM player WHERE level BETWEEN 10 AND 12 ORDER BY level, id LIMIT 3");
+        assertUsesIndex("IDX_PLAYER_EXPERIENCE_ID",
+                "SELECT * FROM player WHERE experience BETWEEN 50000 AND 51000 ORDER BY experience LIMIT 3");
+        assertUsesIndex("IDX_PLAYER_BIRTHDAY_ID",
+                "SELECT * FROM player WHERE birthday BETWEEN '2005-01-01' AND '2005-01-10' ORDER BY birthday LIMIT 3");
+        assertUsesIndex("IDX_PLAYER_LEVEL_ID",
+                "SELECT * FROM player WHERE level >= 30 AND (level > 30 OR (level = 30 AND id > 100)) " +
+                        "ORDER BY level, id LIMIT 3");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue("Запрос не использует индекс " + index + ": " + plan, plan.contains(index));
+    }
+
+    private void seed(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int experience = (i * 7919) % 200_000;
+            int level = ((int) Math.sqrt(2500 + 200 * experience) - 50) / 100;
+            rows.add(new Object[]{"name" + i, "title" + i, RACES[i % RACES.length],
+                    PROFESSIONS[(i / RACES.length) % PROFESSIONS.length],
+                    LocalDate.of(2000, 1, 1).plusDays(i % 4000).toString(),
+                    i % 10 == 0, experience, level, 50 * (level + 1) * (level + 2) - experience});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO player(name, title, race, profession, birthday, banned, experience, " +
+                "level, untilNextLevel) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,42 @@
+package com.game.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class TrigramIndexTest {
+
+    //test1
+    @Test
+    public void candidatesContainAllMatchesTest() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(3, "Эльфёнок Красное Ухо");
+        index.add(1, "Маленький эльфенок");
+        index.add(2, "Смертоносный");
+
+        assertArrayEquals(new int[]{1, 3}, index.candidates("ЭЛЬФЕН"));
+        assertArrayEquals(new int[]{2}, index.candidates("тонос"));
+        assertArrayEquals(new int[0], index.candidates("гном"));
+    }
+
+    //test2
+    @Test
+    public void shortQueryIsNotNarrowedTest() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "Бабушка");
+
+        assertNull(index.candidates("ба"));
+    }
+
+    //test3
+    @Test
+    public void removedRowIsNotReturnedTest() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "Благотворитель");
+        index.add(2, "Благородный");
+        index.remove(1, "Благотворитель");
+
+        assertArrayEquals(new int[]{2}, index.candidates("благо"));
+    }
+}
@@ -12,6 +12,7 @@ CREATE TABLE player
     experience     INT(10)     NULL,
     level          INT(3)      NULL,
     untilNextLevel INT(10)     NULL,
+    version        BIGINT(20)  NOT NULL DEFAULT 0,
     PRIMARY KEY (id)
 );
 